@@ -0,0 +1,277 @@
+package com.github.chenglei1986.clock.benchmark;
+
+import android.graphics.Path;
+import android.util.AttributeSet;
+import android.view.View;
+
+import com.github.chenglei1986.clock.ClockSkin;
+import com.github.chenglei1986.clock.ClockView;
+import com.github.chenglei1986.clock.R;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Draws {@link ClockView}s of typical sizes and attribute combinations and reports, per
+ * scenario, the time {@link View#draw} takes per frame, the bytes allocated per frame and the
+ * number of canvas operations per frame, including those of sub-dials, skins and hand layers, as
+ * JSON. Run it with
+ * {@code ./gradlew :benchmark:testDebugUnitTest}; the report is printed and written to
+ * {@code benchmark/build/benchmark/clockview.json}.
+ * <p>
+ * Frames are drawn onto a {@link CountingCanvas}, which draws nothing, so the timings cover the
+ * Java side of the hot path, not rasterization. Allocations are measured with the HotSpot
+ * per-thread allocation counter and reported as -1 on JVMs without one. What Robolectric
+ * allocates itself to dispatch a draw is measured by drawing an empty view the same way and
+ * subtracted; it is reported as {@code baselineBytesPerFrame}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ClockViewBenchmark {
+
+    private static final int WARMUP_FRAMES = 500;
+    private static final int MEASURED_FRAMES = 2000;
+
+    private static final int[] SIZES = {100, 300, 600};
+
+    private static final Scenario[] SCENARIOS = {
+            new Scenario("default"),
+            new Scenario("noNumbers").with(R.attr.showNumbers, "false"),
+            new Scenario("roman").with(R.attr.numberType, "roman"),
+            new Scenario("noSweep").with(R.attr.showSweepHand, "false"),
+            new Scenario("minimal").with(R.attr.showNumbers, "false").with(R.attr.showThinMarkers, "false")
+                    .with(R.attr.showSweepHand, "false"),
+            new Scenario("subDials").with(R.attr.showSubDials, "true"),
+            new Scenario("skin").withSkin(new TaperedSkin()),
+            new Scenario("handLayers").with(R.attr.handLayers, "true"),
+    };
+
+    @Test
+    public void drawFrames() throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"warmupFrames\": ").append(WARMUP_FRAMES)
+                .append(",\n  \"measuredFrames\": ").append(MEASURED_FRAMES)
+                .append(",\n  \"results\": [");
+        String separator = "\n";
+        for (Scenario scenario : SCENARIOS) {
+            for (int size : SIZES) {
+                Result result = run(scenario, size);
+                json.append(separator).append("    ").append(result.toJson());
+                separator = ",\n";
+            }
+        }
+        json.append("\n  ]\n}\n");
+
+        System.out.print(json);
+        String output = System.getProperty("clock.benchmark.output");
+        if (output != null) {
+            File file = new File(output);
+            file.getParentFile().mkdirs();
+            Writer writer = new FileWriter(file);
+            try {
+                writer.write(json.toString());
+            } finally {
+                writer.close();
+            }
+        }
+    }
+
+    private Result run(Scenario scenario, int size) {
+        ClockView view = new ClockView(RuntimeEnvironment.application, scenario.buildAttributes());
+        if (scenario.mSkin != null) {
+            view.setSkin(scenario.mSkin);
+        }
+        layout(view, size);
+
+        CountingCanvas canvas = new CountingCanvas(size, size);
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            view.draw(canvas);
+        }
+
+        long[] frameNanos = new long[MEASURED_FRAMES];
+        canvas.reset();
+        long allocatedBefore = allocatedBytes();
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            long start = System.nanoTime();
+            view.draw(canvas);
+            frameNanos[i] = System.nanoTime() - start;
+        }
+        long allocatedAfter = allocatedBytes();
+        long baselineBytes = measureBaselineBytes(size);
+
+        Result result = new Result(scenario.mName, size);
+        Arrays.sort(frameNanos);
+        long total = 0;
+        for (long nanos : frameNanos) {
+            total += nanos;
+        }
+        result.meanNanos = total / MEASURED_FRAMES;
+        result.p50Nanos = frameNanos[MEASURED_FRAMES / 2];
+        result.p95Nanos = frameNanos[MEASURED_FRAMES * 95 / 100];
+        if (allocatedBefore < 0) {
+            result.bytesPerFrame = -1;
+            result.baselineBytesPerFrame = -1;
+        } else {
+            result.baselineBytesPerFrame = baselineBytes / MEASURED_FRAMES;
+            result.bytesPerFrame = Math.max(0, allocatedAfter - allocatedBefore - baselineBytes) / MEASURED_FRAMES;
+        }
+        result.drawOpsPerFrame = (float) canvas.drawOps / MEASURED_FRAMES;
+        result.stateOpsPerFrame = (float) canvas.stateOps / MEASURED_FRAMES;
+        return result;
+    }
+
+    private static void layout(View view, int size) {
+        int spec = View.MeasureSpec.makeMeasureSpec(size, View.MeasureSpec.EXACTLY);
+        view.measure(spec, spec);
+        view.layout(0, 0, size, size);
+    }
+
+    /**
+     * @return the bytes allocated to draw an empty view {@link #MEASURED_FRAMES} times, i.e. what
+     * the draw dispatch costs before the clock draws anything
+     */
+    private static long measureBaselineBytes(int size) {
+        View view = new View(RuntimeEnvironment.application);
+        layout(view, size);
+        CountingCanvas canvas = new CountingCanvas(size, size);
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            view.draw(canvas);
+        }
+        long allocatedBefore = allocatedBytes();
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            view.draw(canvas);
+        }
+        return allocatedBytes() - allocatedBefore;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static final class Scenario {
+
+        private final String mName;
+        private final int[] mAttrs = new int[8];
+        private final String[] mValues = new String[8];
+        private int mCount;
+        private ClockSkin mSkin;
+
+        Scenario(String name) {
+            mName = name;
+        }
+
+        Scenario with(int attr, String value) {
+            mAttrs[mCount] = attr;
+            mValues[mCount] = value;
+            mCount++;
+            return this;
+        }
+
+        Scenario withSkin(ClockSkin skin) {
+            mSkin = skin;
+            return this;
+        }
+
+        AttributeSet buildAttributes() {
+            // The intro animation would keep the hands moving through the measured frames.
+            Robolectric.AttributeSetBuilder builder = Robolectric.buildAttributeSet()
+                    .addAttribute(R.attr.animation, "false");
+            for (int i = 0; i < mCount; i++) {
+                builder.addAttribute(mAttrs[i], mValues[i]);
+            }
+            return builder.build();
+        }
+    }
+
+    private static final class Result {
+
+        final String scenario;
+        final int size;
+        long meanNanos;
+        long p50Nanos;
+        long p95Nanos;
+        long bytesPerFrame;
+        long baselineBytesPerFrame;
+        float drawOpsPerFrame;
+        float stateOpsPerFrame;
+
+        Result(String scenario, int size) {
+            this.scenario = scenario;
+            this.size = size;
+        }
+
+        String toJson() {
+            return String.format(Locale.US,
+                    "{\"scenario\": \"%s\", \"size\": %d, \"meanNanos\": %d, \"p50Nanos\": %d, \"p95Nanos\": %d, "
+                            + "\"bytesPerFrame\": %d, \"baselineBytesPerFrame\": %d, \"drawOpsPerFrame\": %.2f, "
+                            + "\"stateOpsPerFrame\": %.2f}",
+                    scenario, size, meanNanos, p50Nanos, p95Nanos, bytesPerFrame, baselineBytesPerFrame,
+                    drawOpsPerFrame, stateOpsPerFrame);
+        }
+    }
+
+    /**
+     * Filled, tapered hands and markers, so every hand and marker is drawn as a path.
+     */
+    private static final class TaperedSkin implements ClockSkin {
+
+        @Override
+        public Path getFacePath() {
+            return null;
+        }
+
+        @Override
+        public Path getThickMarkerPath() {
+            return taper(0.02f, 0.85f, 0.95f);
+        }
+
+        @Override
+        public Path getThinMarkerPath() {
+            return taper(0.01f, 0.9f, 0.95f);
+        }
+
+        @Override
+        public Path getHourHandPath() {
+            return taper(0.06f, -0.15f, 1);
+        }
+
+        @Override
+        public Path getMinuteHandPath() {
+            return taper(0.04f, -0.15f, 1);
+        }
+
+        @Override
+        public Path getSweepHandPath() {
+            return taper(0.02f, -0.2f, 1);
+        }
+
+        /**
+         * @return a shape pointing to 12 o'clock from {@code from} to {@code to} along the radius,
+         * {@code width} wide at its base and pointed at its tip
+         */
+        private static Path taper(float width, float from, float to) {
+            Path path = new Path();
+            path.moveTo(-width / 2, -from);
+            path.lineTo(0, -to);
+            path.lineTo(width / 2, -from);
+            path.close();
+            return path;
+        }
+    }
+}
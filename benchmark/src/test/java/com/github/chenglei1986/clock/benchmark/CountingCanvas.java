@@ -0,0 +1,320 @@
+package com.github.chenglei1986.clock.benchmark;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * A canvas that draws nothing and only counts the operations made on it, split into draw calls
+ * and matrix, save stack and clip calls. Every call is overridden without calling through, so
+ * neither Skia nor Robolectric's shadow canvas, which keeps a history of all calls, adds to the
+ * time and allocations measured.
+ */
+final class CountingCanvas extends Canvas {
+
+    int drawOps;
+    int stateOps;
+
+    private final int mWidth;
+    private final int mHeight;
+    private int mSaveCount = 1;
+
+    CountingCanvas(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+    }
+
+    void reset() {
+        drawOps = 0;
+        stateOps = 0;
+    }
+
+    @Override
+    public int getWidth() {
+        return mWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return mHeight;
+    }
+
+    @Override
+    public boolean isHardwareAccelerated() {
+        return false;
+    }
+
+    @Override
+    public int save() {
+        stateOps++;
+        return mSaveCount++;
+    }
+
+    @Override
+    public int save(int saveFlags) {
+        stateOps++;
+        return mSaveCount++;
+    }
+
+    @Override
+    public int saveLayer(RectF bounds, Paint paint, int saveFlags) {
+        stateOps++;
+        return mSaveCount++;
+    }
+
+    @Override
+    public int saveLayer(float left, float top, float right, float bottom, Paint paint, int saveFlags) {
+        stateOps++;
+        return mSaveCount++;
+    }
+
+    @Override
+    public int saveLayerAlpha(RectF bounds, int alpha, int saveFlags) {
+        stateOps++;
+        return mSaveCount++;
+    }
+
+    @Override
+    public int saveLayerAlpha(float left, float top, float right, float bottom, int alpha, int saveFlags) {
+        stateOps++;
+        return mSaveCount++;
+    }
+
+    @Override
+    public void restore() {
+        stateOps++;
+        mSaveCount--;
+    }
+
+    @Override
+    public void restoreToCount(int saveCount) {
+        stateOps++;
+        mSaveCount = saveCount;
+    }
+
+    @Override
+    public int getSaveCount() {
+        return mSaveCount;
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+        stateOps++;
+    }
+
+    @Override
+    public void rotate(float degrees) {
+        stateOps++;
+    }
+
+    @Override
+    public void scale(float sx, float sy) {
+        stateOps++;
+    }
+
+    @Override
+    public void skew(float sx, float sy) {
+        stateOps++;
+    }
+
+    @Override
+    public void concat(Matrix matrix) {
+        stateOps++;
+    }
+
+    @Override
+    public void setMatrix(Matrix matrix) {
+        stateOps++;
+    }
+
+    @Override
+    public boolean clipRect(Rect rect) {
+        stateOps++;
+        return true;
+    }
+
+    @Override
+    public boolean clipRect(RectF rect) {
+        stateOps++;
+        return true;
+    }
+
+    @Override
+    public boolean clipRect(int left, int top, int right, int bottom) {
+        stateOps++;
+        return true;
+    }
+
+    @Override
+    public boolean clipRect(float left, float top, float right, float bottom) {
+        stateOps++;
+        return true;
+    }
+
+    @Override
+    public boolean clipPath(Path path) {
+        stateOps++;
+        return true;
+    }
+
+    @Override
+    public boolean getClipBounds(Rect bounds) {
+        bounds.set(0, 0, mWidth, mHeight);
+        return true;
+    }
+
+    @Override
+    public boolean quickReject(RectF rect, EdgeType type) {
+        return false;
+    }
+
+    @Override
+    public boolean quickReject(float left, float top, float right, float bottom, EdgeType type) {
+        return false;
+    }
+
+    @Override
+    public boolean quickReject(Path path, EdgeType type) {
+        return false;
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawLines(float[] pts, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawPoint(float x, float y, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawPoints(float[] pts, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawPoints(float[] pts, int offset, int count, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawOval(RectF oval, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawRect(RectF rect, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawRect(Rect rect, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawPaint(Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawColor(int color) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawColor(int color, PorterDuff.Mode mode) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawARGB(int a, int r, int g, int b) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawRGB(int r, int g, int b) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawText(String text, int start, int end, float x, float y, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+        drawOps++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Matrix matrix, Paint paint) {
+        drawOps++;
+    }
+}
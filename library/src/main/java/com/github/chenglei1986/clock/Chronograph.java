@@ -0,0 +1,183 @@
+package com.github.chenglei1986.clock;
+
+import android.os.Build;
+import android.os.SystemClock;
+
+/**
+ * A stopwatch measured against the monotonic {@link SystemClock#elapsedRealtimeNanos()} clock,
+ * so that it is not affected by wall clock or time zone changes. Attach it to a
+ * {@link ClockView} with {@link ClockView#setChronograph(Chronograph)} to drive the hands from
+ * the elapsed time.
+ * <p>
+ * Laps are kept in a fixed-capacity ring buffer of primitives, so recording a lap never
+ * allocates; once it is full, the oldest laps are dropped. Must be used on the UI thread.
+ */
+public final class Chronograph {
+
+    private static final int DEFAULT_LAP_CAPACITY = 100;
+
+    /**
+     * Told about starts, stops and resets, so that an attached view can redraw.
+     */
+    interface Callback {
+        void onChronographStateChanged();
+    }
+
+    /**
+     * Reads the monotonic clock in nanoseconds. Replaced in tests.
+     */
+    interface NanoClock {
+        long nanoTime();
+    }
+
+    private static final NanoClock ELAPSED_REALTIME = new NanoClock() {
+        @Override
+        public long nanoTime() {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+                return SystemClock.elapsedRealtimeNanos();
+            }
+            return SystemClock.elapsedRealtime() * 1000000;
+        }
+    };
+
+    private final NanoClock mNanoClock;
+    private final long[] mSplits;
+    private long mLapCount;
+    private long mDroppedSplit;
+
+    private boolean mRunning;
+    private long mStartNanos;
+    private long mAccumulatedNanos;
+
+    private Callback mCallback;
+
+    public Chronograph() {
+        this(DEFAULT_LAP_CAPACITY);
+    }
+
+    /**
+     * @param lapCapacity the number of most recent laps kept
+     */
+    public Chronograph(int lapCapacity) {
+        this(lapCapacity, ELAPSED_REALTIME);
+    }
+
+    Chronograph(int lapCapacity, NanoClock nanoClock) {
+        if (lapCapacity <= 0) {
+            throw new IllegalArgumentException("lapCapacity must be positive");
+        }
+        mSplits = new long[lapCapacity];
+        mNanoClock = nanoClock;
+    }
+
+    public boolean isRunning() {
+        return mRunning;
+    }
+
+    public void start() {
+        if (!mRunning) {
+            mStartNanos = nanoTime();
+            mRunning = true;
+            notifyStateChanged();
+        }
+    }
+
+    public void stop() {
+        if (mRunning) {
+            mAccumulatedNanos += nanoTime() - mStartNanos;
+            mRunning = false;
+            notifyStateChanged();
+        }
+    }
+
+    /**
+     * Sets the elapsed time back to zero and forgets all laps. A running chronograph keeps
+     * running from zero.
+     */
+    public void reset() {
+        mAccumulatedNanos = 0;
+        mStartNanos = nanoTime();
+        mLapCount = 0;
+        mDroppedSplit = 0;
+        notifyStateChanged();
+    }
+
+    public long getElapsedNanos() {
+        return mRunning ? mAccumulatedNanos + nanoTime() - mStartNanos : mAccumulatedNanos;
+    }
+
+    /**
+     * Records a lap ending now.
+     *
+     * @return the split time of the lap, i.e. the elapsed time
+     */
+    public long lap() {
+        long split = getElapsedNanos();
+        int index = (int) (mLapCount % mSplits.length);
+        if (mLapCount >= mSplits.length) {
+            mDroppedSplit = mSplits[index];
+        }
+        mSplits[index] = split;
+        mLapCount++;
+        return split;
+    }
+
+    /**
+     * @return the number of laps recorded since the last reset, including dropped ones
+     */
+    public long getTotalLapCount() {
+        return mLapCount;
+    }
+
+    /**
+     * @return the number of laps that can still be read, at most the lap capacity
+     */
+    public int getLapCount() {
+        return (int) Math.min(mLapCount, mSplits.length);
+    }
+
+    /**
+     * @param index between 0, the oldest lap kept, and {@link #getLapCount()} - 1
+     * @return the elapsed time at the end of the lap
+     */
+    public long getSplitNanos(int index) {
+        if (index < 0 || index >= getLapCount()) {
+            throw new IndexOutOfBoundsException("index " + index + " out of " + getLapCount() + " laps");
+        }
+        long first = mLapCount - getLapCount();
+        return mSplits[(int) ((first + index) % mSplits.length)];
+    }
+
+    /**
+     * @param index between 0, the oldest lap kept, and {@link #getLapCount()} - 1
+     * @return the duration of the lap
+     */
+    public long getLapNanos(int index) {
+        long previous = index > 0 ? getSplitNanos(index - 1) : mDroppedSplit;
+        return getSplitNanos(index) - previous;
+    }
+
+    void setCallback(Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * Removes the callback only if it is still the given one, so that a clock letting go of the
+     * chronograph does not detach the clock that took it over since.
+     */
+    void clearCallback(Callback callback) {
+        if (mCallback == callback) {
+            mCallback = null;
+        }
+    }
+
+    private void notifyStateChanged() {
+        if (mCallback != null) {
+            mCallback.onChronographStateChanged();
+        }
+    }
+
+    private long nanoTime() {
+        return mNanoClock.nanoTime();
+    }
+}
@@ -0,0 +1,217 @@
+package com.github.chenglei1986.clock;
+
+import android.graphics.Bitmap;
+import android.os.Process;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Renders clock images on a bounded pool of background threads, e.g. one thumbnail per time zone,
+ * app widget bitmaps or wallpaper frames, without inflating any view. Consecutive images of the
+ * same style and size share one face, rendered by whichever worker needs it first while the
+ * others wait for it. Each worker thread draws with its own renderer, whose paints and layout
+ * are only rebuilt when the style or size changes, and nothing is shared with the clocks on the
+ * UI thread or {@link ClockCache}.
+ * <p>
+ * Idle worker threads exit after a while, so a renderer can be kept around for the lifetime of
+ * the process. Call {@link #shutdown()} if it is not.
+ */
+public final class ClockBatchRenderer {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    private static final int MAX_DEFAULT_THREADS = 4;
+
+    private final ThreadPoolExecutor mExecutor;
+    private final AtomicReference<FaceTask> mFaceTask = new AtomicReference<FaceTask>();
+    private final ThreadLocal<ClockRenderer> mRenderers = new ThreadLocal<ClockRenderer>();
+
+    /**
+     * Creates a renderer using one thread less than there are processors, at least one and at
+     * most {@value #MAX_DEFAULT_THREADS}.
+     */
+    public ClockBatchRenderer() {
+        this(Math.max(1, Math.min(MAX_DEFAULT_THREADS, Runtime.getRuntime().availableProcessors() - 1)));
+    }
+
+    /**
+     * @param threadCount the maximum number of images rendered at the same time
+     */
+    public ClockBatchRenderer(int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("threadCount must be positive");
+        }
+        mExecutor = new ThreadPoolExecutor(threadCount, threadCount, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new WorkerThreadFactory());
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues one image of the clock showing the given instant in the given time zone.
+     *
+     * @param size      edge length of the image in pixels
+     * @param utcMillis milliseconds since the epoch, UTC
+     */
+    public Future<Bitmap> submit(final ClockStyle style, final int size, final TimeZone timeZone, final long utcMillis) {
+        if (style == null || timeZone == null) {
+            throw new IllegalArgumentException("style and timeZone must not be null");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        return mExecutor.submit(new Callable<Bitmap>() {
+            @Override
+            public Bitmap call() throws InterruptedException {
+                Bitmap face = obtainFace(style, size);
+                ClockRenderer renderer = obtainRenderer(style, size);
+                renderer.setTimeZone(timeZone);
+                renderer.setFace(face);
+                return renderer.render(utcMillis);
+            }
+        });
+    }
+
+    /**
+     * Runs on a worker thread and returns the renderer of that thread, set to the given style
+     * and size. Consecutive images of one style and size reuse its paints and layout as they are.
+     */
+    private ClockRenderer obtainRenderer(ClockStyle style, int size) {
+        ClockRenderer renderer = mRenderers.get();
+        if (renderer == null) {
+            renderer = new ClockRenderer(style);
+            mRenderers.set(renderer);
+        } else {
+            renderer.setStyle(style);
+        }
+        renderer.setSize(size);
+        return renderer;
+    }
+
+    /**
+     * Runs on a worker thread. Only the face of the most recent style and size is kept, which
+     * covers a batch while holding on to at most one face.
+     */
+    private Bitmap obtainFace(ClockStyle style, int size) throws InterruptedException {
+        FaceTask task = mFaceTask.get();
+        while (task == null || !task.matches(style, size)) {
+            FaceTask newTask = new FaceTask(style, size);
+            if (mFaceTask.compareAndSet(task, newTask)) {
+                task = newTask;
+                break;
+            }
+            task = mFaceTask.get();
+        }
+        // Only the first caller renders; the others wait for its result.
+        task.run();
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            mFaceTask.compareAndSet(task, null);
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Queues one image per time zone, all showing the same instant.
+     *
+     * @return the pending images, in the order of {@code timeZones}
+     */
+    public List<Future<Bitmap>> submitAll(ClockStyle style, int size, TimeZone[] timeZones, long utcMillis) {
+        List<Future<Bitmap>> futures = new ArrayList<Future<Bitmap>>(timeZones.length);
+        for (TimeZone timeZone : timeZones) {
+            futures.add(submit(style, size, timeZone, utcMillis));
+        }
+        return futures;
+    }
+
+    /**
+     * Like {@link #submitAll(ClockStyle, int, TimeZone[], long)}, but waits for all images. Must
+     * not be called on the UI thread.
+     *
+     * @return the images, in the order of {@code timeZones}
+     */
+    public Bitmap[] renderAll(ClockStyle style, int size, TimeZone[] timeZones, long utcMillis)
+            throws InterruptedException {
+        List<Future<Bitmap>> futures = submitAll(style, size, timeZones, utcMillis);
+        Bitmap[] bitmaps = new Bitmap[futures.size()];
+        try {
+            for (int i = 0; i < bitmaps.length; i++) {
+                bitmaps[i] = futures.get(i).get();
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            for (Future<Bitmap> future : futures) {
+                future.cancel(false);
+            }
+        }
+        return bitmaps;
+    }
+
+    /**
+     * Finishes the images already queued and stops the worker threads. No images can be
+     * submitted afterwards.
+     */
+    public void shutdown() {
+        mExecutor.shutdown();
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new RuntimeException(cause);
+    }
+
+    private final class FaceTask extends FutureTask<Bitmap> {
+
+        private final ClockStyle mStyle;
+        private final int mSize;
+
+        FaceTask(final ClockStyle style, final int size) {
+            super(new Callable<Bitmap>() {
+                @Override
+                public Bitmap call() {
+                    return obtainRenderer(style, size).renderFace();
+                }
+            });
+            mStyle = style;
+            mSize = size;
+        }
+
+        boolean matches(ClockStyle style, int size) {
+            return mSize == size && mStyle.hasSameFace(style);
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            return new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            }, "ClockBatchRenderer #" + mCount.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.chenglei1986.clock;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.util.LruCache;
+
+/**
+ * Process-wide cache of rendered clock faces and paint sets, shared by every clock with the same
+ * style and size. Faces are bounded by a byte budget and evicted least recently used first; the
+ * cache also shrinks on {@link ComponentCallbacks2#onTrimMemory(int)}.
+ * <p>
+ * Evicted faces are never recycled since clocks still showing them keep a reference.
+ */
+public final class ClockCache {
+
+    private static final int MAX_PAINT_SETS = 32;
+
+    private static final LruCache<FaceKey, Bitmap> sFaces =
+            new LruCache<FaceKey, Bitmap>((int) Math.min(Runtime.getRuntime().maxMemory() / 32, Integer.MAX_VALUE)) {
+                @Override
+                protected int sizeOf(FaceKey key, Bitmap value) {
+                    return value.getByteCount();
+                }
+            };
+
+    private static final LruCache<ClockStyle, ClockPaints> sPaints = new LruCache<ClockStyle, ClockPaints>(MAX_PAINT_SETS);
+
+    private static volatile int sMaxFaceBytes = sFaces.maxSize();
+    /** Set by a background trim; halves the face budget until a clock is shown again. */
+    private static volatile boolean sTrimmed;
+
+    private static boolean sCallbacksRegistered;
+
+    private static final ComponentCallbacks2 sMemoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            trimMemory(level);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            clear();
+        }
+    };
+
+    private ClockCache() {
+    }
+
+    /**
+     * @return the maximum number of bytes the cached faces may use
+     */
+    public static int getMaxFaceBytes() {
+        return sMaxFaceBytes;
+    }
+
+    /**
+     * Sets the maximum number of bytes the cached faces may use, evicting faces if needed. The
+     * default is 1/32 of the maximum heap size.
+     */
+    public static void setMaxFaceBytes(int maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        sMaxFaceBytes = maxBytes;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            sFaces.resize(maxBytes);
+        }
+        // LruCache.resize() is not available before API 21; there only shrinking can be honored,
+        // which putFace() keeps doing.
+        trimFaces();
+    }
+
+    /**
+     * Releases cached faces according to a {@link ComponentCallbacks2} trim level. Clocks call
+     * this automatically once the cache is in use. A background or low memory trim halves the
+     * face budget until a clock is shown again; a moderate or critical one empties the cache.
+     */
+    public static void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            sTrimmed = true;
+            trimFaces();
+        }
+    }
+
+    public static void clear() {
+        sFaces.evictAll();
+        sPaints.evictAll();
+    }
+
+    static synchronized void registerMemoryCallbacks(Context context) {
+        if (!sCallbacksRegistered) {
+            context.getApplicationContext().registerComponentCallbacks(sMemoryCallbacks);
+            sCallbacksRegistered = true;
+        }
+    }
+
+    static ClockPaints obtainPaints(ClockStyle style) {
+        ClockPaints paints = sPaints.get(style);
+        if (paints == null) {
+            paints = new ClockPaints(style);
+            sPaints.put(style, paints);
+        }
+        return paints;
+    }
+
+    /**
+     * Restores the full face budget after a background trim. Called when a clock starts running.
+     */
+    static void onClockShown() {
+        sTrimmed = false;
+    }
+
+    static Bitmap getFace(ClockStyle style, int size) {
+        return sFaces.get(new FaceKey(style, size));
+    }
+
+    static void putFace(ClockStyle style, int size, Bitmap face) {
+        sFaces.put(new FaceKey(style, size), face);
+        trimFaces();
+    }
+
+    /**
+     * Evicts faces beyond the current budget, which the {@link LruCache} itself does not know
+     * about while trimmed or before API 21.
+     */
+    private static void trimFaces() {
+        int budget = sTrimmed ? sMaxFaceBytes / 2 : sMaxFaceBytes;
+        if (sFaces.size() > budget) {
+            sFaces.trimToSize(budget);
+        }
+    }
+
+    private static final class FaceKey {
+
+        private final ClockStyle mStyle;
+        private final int mSize;
+
+        FaceKey(ClockStyle style, int size) {
+            mStyle = style;
+            mSize = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FaceKey)) {
+                return false;
+            }
+            FaceKey other = (FaceKey) o;
+            return mSize == other.mSize && mStyle.hasSameFace(other.mStyle);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mStyle.faceHashCode() + mSize;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.github.chenglei1986.clock;
+
+/**
+ * Frame statistics of one {@link ClockView}, see {@link ClockView#setFrameStatsEnabled(boolean)}.
+ * Draw times are kept in a fixed histogram of {@value #BUCKET_MICROS} microsecond buckets, so
+ * recording a frame never allocates and percentiles are rounded up to the next bucket.
+ */
+public final class ClockFrameStats {
+
+    static final int BUCKET_MICROS = 100;
+    private static final long BUCKET_NANOS = BUCKET_MICROS * 1000L;
+    private static final int BUCKET_COUNT = 250;
+
+    /** The last bucket collects every frame slower than the histogram range. */
+    private final int[] mDrawTimeBuckets = new int[BUCKET_COUNT + 1];
+
+    private long mFramesDrawn;
+    private long mFramesSkipped;
+    private long mHandLayerFrames;
+    private long mFramesOverBudget;
+    private long mTotalDrawNanos;
+    private long mMaxDrawNanos;
+    private long mInvalidations;
+    private long mInvalidatedPixels;
+
+    /**
+     * @return the number of frames drawn
+     */
+    public long getFramesDrawn() {
+        return mFramesDrawn;
+    }
+
+    /**
+     * @return the number of ticks that did not redraw anything because no hand moved far enough
+     */
+    public long getFramesSkipped() {
+        return mFramesSkipped;
+    }
+
+    /**
+     * @return the number of ticks that only turned hand layers, see
+     * {@link ClockView#setHandLayersEnabled(boolean)}. The clock is not drawn again for these, so
+     * they count neither as drawn nor as skipped frames and add no invalidation.
+     */
+    public long getHandLayerFrames() {
+        return mHandLayerFrames;
+    }
+
+    /**
+     * @return the number of frames whose draw took longer than one refresh period of the display
+     */
+    public long getFramesOverBudget() {
+        return mFramesOverBudget;
+    }
+
+    public long getMeanDrawNanos() {
+        return mFramesDrawn == 0 ? 0 : mTotalDrawNanos / mFramesDrawn;
+    }
+
+    public long getP50DrawNanos() {
+        return getDrawNanosPercentile(50);
+    }
+
+    public long getP95DrawNanos() {
+        return getDrawNanosPercentile(95);
+    }
+
+    public long getMaxDrawNanos() {
+        return mMaxDrawNanos;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the draw time below which the given percentage of frames fall, rounded up to the
+     * histogram resolution and capped at {@link #getMaxDrawNanos()}
+     */
+    public long getDrawNanosPercentile(float percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        if (mFramesDrawn == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * mFramesDrawn);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += mDrawTimeBuckets[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min((i + 1) * BUCKET_NANOS, mMaxDrawNanos);
+            }
+        }
+        return mMaxDrawNanos;
+    }
+
+    /**
+     * @return the number of times part or all of the clock was invalidated
+     */
+    public long getInvalidations() {
+        return mInvalidations;
+    }
+
+    /**
+     * @return the total area invalidated, in pixels
+     */
+    public long getInvalidatedPixels() {
+        return mInvalidatedPixels;
+    }
+
+    /**
+     * @return the average area of one invalidation, in pixels
+     */
+    public long getMeanInvalidatedPixels() {
+        return mInvalidations == 0 ? 0 : mInvalidatedPixels / mInvalidations;
+    }
+
+    /**
+     * Copies all statistics from {@code other}.
+     */
+    public void set(ClockFrameStats other) {
+        System.arraycopy(other.mDrawTimeBuckets, 0, mDrawTimeBuckets, 0, mDrawTimeBuckets.length);
+        mFramesDrawn = other.mFramesDrawn;
+        mFramesSkipped = other.mFramesSkipped;
+        mHandLayerFrames = other.mHandLayerFrames;
+        mFramesOverBudget = other.mFramesOverBudget;
+        mTotalDrawNanos = other.mTotalDrawNanos;
+        mMaxDrawNanos = other.mMaxDrawNanos;
+        mInvalidations = other.mInvalidations;
+        mInvalidatedPixels = other.mInvalidatedPixels;
+    }
+
+    public void reset() {
+        for (int i = 0; i < mDrawTimeBuckets.length; i++) {
+            mDrawTimeBuckets[i] = 0;
+        }
+        mFramesDrawn = 0;
+        mFramesSkipped = 0;
+        mHandLayerFrames = 0;
+        mFramesOverBudget = 0;
+        mTotalDrawNanos = 0;
+        mMaxDrawNanos = 0;
+        mInvalidations = 0;
+        mInvalidatedPixels = 0;
+    }
+
+    void recordFrame(long drawNanos, long budgetNanos) {
+        mFramesDrawn++;
+        mTotalDrawNanos += drawNanos;
+        if (drawNanos > mMaxDrawNanos) {
+            mMaxDrawNanos = drawNanos;
+        }
+        if (drawNanos > budgetNanos) {
+            mFramesOverBudget++;
+        }
+        mDrawTimeBuckets[(int) Math.min(drawNanos / BUCKET_NANOS, BUCKET_COUNT)]++;
+    }
+
+    void recordSkippedFrame() {
+        mFramesSkipped++;
+    }
+
+    void recordHandLayerFrame() {
+        mHandLayerFrames++;
+    }
+
+    void recordInvalidation(int pixels) {
+        mInvalidations++;
+        mInvalidatedPixels += pixels;
+    }
+}
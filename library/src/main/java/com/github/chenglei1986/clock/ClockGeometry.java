@@ -0,0 +1,168 @@
+package com.github.chenglei1986.clock;
+
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+/**
+ * Everything about the clock layout that only depends on its size and style: marker end points
+ * laid out for {@link android.graphics.Canvas#drawLines(float[], Paint)}, number positions, rim
+ * radii and hand lengths. Coordinates are relative to the clock center.
+ * <p>
+ * The dial is split into a number of divisions, 12 for the hours, each with a thick marker and
+ * a number at its end and four thin markers inside.
+ * <p>
+ * The shapes of a {@link ClockSkin} are compiled here too: scaled to the size, with the markers
+ * placed around the dial, so that a frame only has to rotate the hands. A path is {@code null}
+ * where the skin keeps the default shape.
+ */
+final class ClockGeometry {
+
+    private static final int THIN_MARKERS_PER_DIVISION = 4;
+
+    final float[] thickMarkerLines;
+    final float[] thinMarkerLines;
+    final float[] numberX;
+    final float[] numberY;
+
+    float faceRadius;
+    float outerRimRadius;
+    float innerRimRadius;
+    float hourHandRadius;
+    float minuteHandRadius;
+    float sweepHandRadius;
+
+    Path facePath;
+    Path outerRimPath;
+    Path thickMarkerPath;
+    Path thinMarkerPath;
+    /** Hands pointing to 12 o'clock, with the bounds of each. */
+    final Path[] handPaths = new Path[ClockRenderer.HAND_COUNT];
+    final RectF[] handBounds = new RectF[ClockRenderer.HAND_COUNT];
+
+    private final int mDivisions;
+    private final Paint.FontMetrics mFontMetrics = new Paint.FontMetrics();
+    private final Matrix mMatrix = new Matrix();
+
+    ClockGeometry() {
+        this(12);
+    }
+
+    ClockGeometry(int divisions) {
+        mDivisions = divisions;
+        thickMarkerLines = new float[divisions * 4];
+        thinMarkerLines = new float[divisions * THIN_MARKERS_PER_DIVISION * 4];
+        numberX = new float[divisions];
+        numberY = new float[divisions];
+    }
+
+    /**
+     * @param size           edge length of the square the clock is drawn in
+     * @param numberPaint    paint the numbers are drawn with, already sized
+     * @param handGap        distance between the hour and minute hand tips and the nearest marking
+     * @param skin           shapes to compile, or {@code null} for the default lines and circles
+     */
+    void layout(int size, Paint numberPaint, float thickMarkerLength, float thinMarkerLength, float handGap,
+                ClockSkin skin) {
+        int radius = size / 2;
+        numberPaint.getFontMetrics(mFontMetrics);
+        float numberHeight = -mFontMetrics.ascent + mFontMetrics.descent;
+
+        int thick = 0;
+        int thin = 0;
+        int steps = mDivisions * (THIN_MARKERS_PER_DIVISION + 1);
+        for (int step = 0; step < steps; step++) {
+            double radian = step * 2 * Math.PI / steps - Math.PI / 2;
+            float cos = (float) Math.cos(radian);
+            float sin = (float) Math.sin(radian);
+            if (step % (THIN_MARKERS_PER_DIVISION + 1) == 0) {
+                thick = putLine(thickMarkerLines, thick, radius, radius - thickMarkerLength, cos, sin);
+            } else {
+                thin = putLine(thinMarkerLines, thin, radius, radius - thinMarkerLength, cos, sin);
+            }
+        }
+
+        float numberRadius = radius - thickMarkerLength - numberHeight / 2;
+        float baselineOffset = -(mFontMetrics.ascent + mFontMetrics.descent) / 2;
+        for (int i = 0; i < mDivisions; i++) {
+            double radian = (i + 1) * 2 * Math.PI / mDivisions - Math.PI / 2;
+            numberX[i] = numberRadius * (float) Math.cos(radian);
+            numberY[i] = numberRadius * (float) Math.sin(radian) + baselineOffset;
+        }
+
+        faceRadius = radius;
+        outerRimRadius = radius - thinMarkerLength;
+        innerRimRadius = radius - thickMarkerLength - numberHeight - mFontMetrics.bottom;
+        hourHandRadius = (int) (innerRimRadius - handGap);
+        minuteHandRadius = (int) (radius - thinMarkerLength - handGap);
+        sweepHandRadius = radius;
+
+        if (skin != null) {
+            compileSkin(skin);
+        } else {
+            facePath = null;
+            outerRimPath = null;
+            thickMarkerPath = null;
+            thinMarkerPath = null;
+            for (int hand = 0; hand < ClockRenderer.HAND_COUNT; hand++) {
+                handPaths[hand] = null;
+            }
+        }
+    }
+
+    private void compileSkin(ClockSkin skin) {
+        facePath = scale(skin.getFacePath(), faceRadius);
+        outerRimPath = scale(skin.getFacePath(), outerRimRadius);
+        thickMarkerPath = placeMarkers(skin.getThickMarkerPath(), true);
+        thinMarkerPath = placeMarkers(skin.getThinMarkerPath(), false);
+        compileHand(ClockRenderer.HOUR_HAND, skin.getHourHandPath(), hourHandRadius);
+        compileHand(ClockRenderer.MINUTE_HAND, skin.getMinuteHandPath(), minuteHandRadius);
+        compileHand(ClockRenderer.SWEEP_HAND, skin.getSweepHandPath(), sweepHandRadius);
+    }
+
+    private Path scale(Path source, float scale) {
+        if (source == null) {
+            return null;
+        }
+        Path path = new Path();
+        mMatrix.setScale(scale, scale);
+        source.transform(mMatrix, path);
+        return path;
+    }
+
+    private Path placeMarkers(Path marker, boolean thick) {
+        if (marker == null) {
+            return null;
+        }
+        Path path = new Path();
+        int steps = mDivisions * (THIN_MARKERS_PER_DIVISION + 1);
+        for (int step = 0; step < steps; step++) {
+            if ((step % (THIN_MARKERS_PER_DIVISION + 1) == 0) == thick) {
+                mMatrix.setScale(faceRadius, faceRadius);
+                mMatrix.postRotate(step * 360f / steps);
+                path.addPath(marker, mMatrix);
+            }
+        }
+        return path;
+    }
+
+    private void compileHand(int hand, Path source, float length) {
+        Path path = scale(source, length);
+        handPaths[hand] = path;
+        if (path != null) {
+            if (handBounds[hand] == null) {
+                handBounds[hand] = new RectF();
+            }
+            path.computeBounds(handBounds[hand], true);
+        }
+    }
+
+    private static int putLine(float[] lines, int index, float outerRadius, float innerRadius, float cos, float sin) {
+        lines[index++] = outerRadius * cos;
+        lines[index++] = outerRadius * sin;
+        lines[index++] = innerRadius * cos;
+        lines[index++] = innerRadius * sin;
+        return index;
+    }
+}
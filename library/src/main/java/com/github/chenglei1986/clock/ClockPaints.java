@@ -0,0 +1,98 @@
+package com.github.chenglei1986.clock;
+
+import android.graphics.Paint;
+import android.text.TextPaint;
+
+/**
+ * The paints for one {@link ClockStyle}. Instances are shared between every clock with that
+ * style and must never be modified after construction. The fill paints are only there for
+ * styles with a {@link ClockSkin}, whose shapes are filled rather than stroked.
+ */
+final class ClockPaints {
+
+    final Paint clockFace = new Paint();
+    final Paint outerRim = new Paint();
+    final Paint innerRim = new Paint();
+    final Paint thickMarker = new Paint();
+    final Paint thinMarker = new Paint();
+    final TextPaint number = new TextPaint();
+    final Paint hourHand = new Paint();
+    final Paint minuteHand = new Paint();
+    final Paint sweepHand = new Paint();
+    final Paint centerCircle = new Paint();
+    final Paint thickMarkerFill;
+    final Paint thinMarkerFill;
+    final Paint hourHandFill;
+    final Paint minuteHandFill;
+    final Paint sweepHandFill;
+
+    ClockPaints(ClockStyle style) {
+        clockFace.setAntiAlias(style.isAntiAlias());
+        clockFace.setColor(style.getClockFaceColor());
+        clockFace.setStyle(Paint.Style.FILL);
+
+        outerRim.setAntiAlias(style.isAntiAlias());
+        outerRim.setColor(style.getOuterRimColor());
+        outerRim.setStyle(Paint.Style.STROKE);
+        outerRim.setStrokeWidth(style.getOuterRimWidth());
+
+        innerRim.setAntiAlias(style.isAntiAlias());
+        innerRim.setColor(style.getInnerRimColor());
+        innerRim.setStyle(Paint.Style.STROKE);
+        innerRim.setStrokeWidth(style.getInnerRimWidth());
+
+        thickMarker.setAntiAlias(style.isAntiAlias());
+        thickMarker.setColor(style.getThickMarkerColor());
+        thickMarker.setStyle(Paint.Style.STROKE);
+        thickMarker.setStrokeWidth(style.getThickMarkerWidth());
+
+        thinMarker.setAntiAlias(style.isAntiAlias());
+        thinMarker.setColor(style.getThinMarkerColor());
+        thinMarker.setStyle(Paint.Style.STROKE);
+        thinMarker.setStrokeWidth(style.getThinMarkerWidth());
+
+        number.setAntiAlias(style.isAntiAlias());
+        number.setColor(style.getNumberTextColor());
+        number.setTextSize(style.getNumberTextSize());
+        number.setTextAlign(Paint.Align.CENTER);
+
+        hourHand.setAntiAlias(style.isAntiAlias());
+        hourHand.setColor(style.getHourHandColor());
+        hourHand.setStyle(Paint.Style.STROKE);
+        hourHand.setStrokeWidth(style.getHourHandWidth());
+
+        minuteHand.setAntiAlias(style.isAntiAlias());
+        minuteHand.setColor(style.getMinuteHandColor());
+        minuteHand.setStyle(Paint.Style.STROKE);
+        minuteHand.setStrokeWidth(style.getMinuteHandWidth());
+
+        sweepHand.setAntiAlias(style.isAntiAlias());
+        sweepHand.setColor(style.getSweepHandColor());
+        sweepHand.setStyle(Paint.Style.STROKE);
+        sweepHand.setStrokeWidth(style.getSweepHandWidth());
+
+        centerCircle.setAntiAlias(style.isAntiAlias());
+        centerCircle.setColor(style.getCenterCircleColor());
+        centerCircle.setStyle(Paint.Style.FILL);
+
+        if (style.getSkin() != null) {
+            thickMarkerFill = fill(thickMarker);
+            thinMarkerFill = fill(thinMarker);
+            hourHandFill = fill(hourHand);
+            minuteHandFill = fill(minuteHand);
+            sweepHandFill = fill(sweepHand);
+        } else {
+            thickMarkerFill = null;
+            thinMarkerFill = null;
+            hourHandFill = null;
+            minuteHandFill = null;
+            sweepHandFill = null;
+        }
+    }
+
+    private static Paint fill(Paint stroke) {
+        Paint paint = new Paint(stroke);
+        paint.setStyle(Paint.Style.FILL);
+        return paint;
+    }
+}
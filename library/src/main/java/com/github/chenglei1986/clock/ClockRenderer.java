@@ -0,0 +1,466 @@
+package com.github.chenglei1986.clock;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import java.util.TimeZone;
+
+/**
+ * Draws a clock of a given {@link ClockStyle} and size onto any {@link Canvas}, without a view.
+ * {@link ClockView} draws its frames through one, and it can just as well be used on a worker
+ * thread to render widget images or thumbnails, see {@link ClockBatchRenderer}.
+ * <p>
+ * A renderer may be used from any thread, but only from one thread at a time. It owns its paints
+ * and face, so it shares neither state nor locks with the clocks on the UI thread, which share
+ * theirs through {@link ClockCache}.
+ */
+public final class ClockRenderer {
+
+    static final int HOUR_HAND = 0;
+    static final int MINUTE_HAND = 1;
+    static final int SWEEP_HAND = 2;
+    static final int HAND_COUNT = 3;
+
+    static final int MINUTES_SUB_DIAL = 0;
+    static final int TENTHS_SUB_DIAL = 1;
+    static final int SUB_DIAL_COUNT = 2;
+
+    /**
+     * Sub-dials are the main dial scaled down, left and right of the clock center, so they are
+     * drawn by the same code and keep its proportions.
+     */
+    private static final float SUB_DIAL_SCALE = 0.3f;
+    private static final float SUB_DIAL_OFFSET = 0.42f;
+
+    // In dp, converted with the density of the style.
+    private static final float THICK_MARKER_LENGTH_DP = 20;
+    private static final float THIN_MARKER_LENGTH_DP = 10;
+    private static final float HAND_GAP_DP = 5;
+
+    private static final String[] ARABIC_NUMBER_LIST = {
+            "1", "2", "3", "4", "5", "6",
+            "7", "8", "9", "10", "11", "12"};
+
+    private static final String[] ROMAN_NUMBER_LIST = {
+            "Ⅰ", "Ⅱ", "Ⅲ", "Ⅳ", "Ⅴ", "Ⅵ",
+            "Ⅶ", "Ⅷ", "Ⅸ", "Ⅹ", "Ⅺ", "Ⅻ"};
+
+    private static final String[] MINUTES_NUMBER_LIST = {
+            "5", "10", "15", "20", "25", "30",
+            "35", "40", "45", "50", "55", "60"};
+
+    private static final String[] TENTHS_NUMBER_LIST = {
+            "1", "2", "3", "4", "5",
+            "6", "7", "8", "9", "0"};
+
+    private final boolean mShared;
+    private ClockStyle mStyle;
+    private ClockPaints mPaints;
+    private final ClockGeometry mGeometry = new ClockGeometry();
+    private final ClockGeometry mTenthsGeometry = new ClockGeometry(TENTHS_NUMBER_LIST.length);
+    private final ClockTime mClockTime = new ClockTime();
+    private TimeZone mTimeZone = TimeZone.getDefault();
+    private int mSize;
+    private Bitmap mFace;
+
+    /**
+     * Creates a renderer. Paints and layout are only resolved once it is sized or drawn, so
+     * creating one is cheap.
+     */
+    public ClockRenderer(ClockStyle style) {
+        this(style, false);
+    }
+
+    /**
+     * @param shared whether paints and faces are shared with other clocks through
+     *               {@link ClockCache}; only done on the UI thread
+     */
+    ClockRenderer(ClockStyle style, boolean shared) {
+        mShared = shared;
+        setStyle(style);
+    }
+
+    public ClockStyle getStyle() {
+        return mStyle;
+    }
+
+    public void setStyle(ClockStyle style) {
+        if (style == null) {
+            throw new IllegalArgumentException("style must not be null");
+        }
+        if (style.equals(mStyle)) {
+            return;
+        }
+        ClockStyle oldStyle = mStyle;
+        mStyle = style;
+        if (mPaints == null) {
+            return;
+        }
+        mPaints = obtainPaints(style);
+        // The layout only depends on the style through the number size, the sub-dials and the
+        // skin, and the face only needs to be picked up again if it looks different.
+        if (oldStyle.getNumberTextSize() != style.getNumberTextSize()
+                || oldStyle.isShowSubDials() != style.isShowSubDials() || oldStyle.getSkin() != style.getSkin()) {
+            layout();
+        } else if (!oldStyle.hasSameFace(style)) {
+            mFace = null;
+        }
+    }
+
+    public int getSize() {
+        return mSize;
+    }
+
+    /**
+     * Sets the edge length of the square the clock is drawn in.
+     */
+    public void setSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative");
+        }
+        if (mSize != size) {
+            mSize = size;
+            if (mPaints != null) {
+                layout();
+            } else {
+                resolve();
+            }
+        }
+    }
+
+    /**
+     * Picks up the paints and lays the clock out the first time either is needed.
+     */
+    private void resolve() {
+        if (mPaints == null) {
+            mPaints = obtainPaints(mStyle);
+            layout();
+        }
+    }
+
+    private ClockPaints obtainPaints(ClockStyle style) {
+        return mShared ? ClockCache.obtainPaints(style) : new ClockPaints(style);
+    }
+
+    private void layout() {
+        ClockSkin skin = mStyle.getSkin();
+        float thickMarkerLength = mStyle.dipToPx(THICK_MARKER_LENGTH_DP);
+        float thinMarkerLength = mStyle.dipToPx(THIN_MARKER_LENGTH_DP);
+        float handGap = mStyle.dipToPx(HAND_GAP_DP);
+        mGeometry.layout(mSize, mPaints.number, thickMarkerLength, thinMarkerLength, handGap, skin);
+        if (mStyle.isShowSubDials()) {
+            mTenthsGeometry.layout(mSize, mPaints.number, thickMarkerLength, thinMarkerLength, handGap, skin);
+        }
+        mFace = null;
+    }
+
+    public TimeZone getTimeZone() {
+        return mTimeZone;
+    }
+
+    /**
+     * Sets the time zone {@link #draw(Canvas, long)} shows the instant in. Defaults to the
+     * system default time zone at the time the renderer was created.
+     */
+    public void setTimeZone(TimeZone timeZone) {
+        if (timeZone == null) {
+            throw new IllegalArgumentException("timeZone must not be null");
+        }
+        mTimeZone = timeZone;
+        mClockTime.setTimeZone(timeZone);
+    }
+
+    /**
+     * Draws the clock showing the given instant into the square from (0, 0) to
+     * ({@link #getSize()}, {@link #getSize()}) of the canvas.
+     *
+     * @param utcMillis milliseconds since the epoch, UTC
+     */
+    public void draw(Canvas canvas, long utcMillis) {
+        if (mSize == 0) {
+            return;
+        }
+        mClockTime.set(utcMillis);
+        float hour = mClockTime.hour;
+        float minute = mClockTime.minute;
+        float second = mClockTime.second;
+        int milliSecond = 1000 * mClockTime.second + mClockTime.milliSecond;
+
+        drawFace(canvas, 0, 0);
+        canvas.save();
+        canvas.translate(mSize / 2, mSize / 2);
+        if (mStyle.isShowSubDials()) {
+            for (int subDial = 0; subDial < SUB_DIAL_COUNT; subDial++) {
+                drawSubDialHand(canvas, subDial, computeSubDialAngle(subDial, 0));
+            }
+        }
+        for (int hand = 0; hand < HAND_COUNT; hand++) {
+            if (isHandShown(hand)) {
+                drawHand(canvas, hand, computeHandAngle(hand, hour, minute, second, milliSecond));
+            }
+        }
+        drawCenter(canvas);
+        canvas.restore();
+    }
+
+    /**
+     * @return a new bitmap of {@link #getSize()} pixels square showing the given instant
+     */
+    public Bitmap render(long utcMillis) {
+        if (mSize == 0) {
+            throw new IllegalStateException("size must be set before rendering");
+        }
+        Bitmap bitmap = Bitmap.createBitmap(mSize, mSize, Bitmap.Config.ARGB_8888);
+        draw(new Canvas(bitmap), utcMillis);
+        return bitmap;
+    }
+
+    /**
+     * Draws the static face with its top left corner at the given position. A shared renderer
+     * picks it up from {@link ClockCache} or renders it if no other clock has done so yet. Draws
+     * nothing while the size is 0.
+     */
+    void drawFace(Canvas canvas, float left, float top) {
+        if (mSize == 0) {
+            return;
+        }
+        resolve();
+        if (mFace == null) {
+            mFace = obtainFace();
+        }
+        canvas.drawBitmap(mFace, left, top, null);
+    }
+
+    private Bitmap obtainFace() {
+        if (!mShared) {
+            return renderFace();
+        }
+        Bitmap face = ClockCache.getFace(mStyle, mSize);
+        if (face == null) {
+            face = renderFace();
+            ClockCache.putFace(mStyle, mSize, face);
+        }
+        return face;
+    }
+
+    /**
+     * The face holds everything that does not move (face, rims, markers, numbers and sub-dials),
+     * so that a frame only has to blit it and draw the hands. The size must not be 0.
+     */
+    Bitmap renderFace() {
+        resolve();
+        Bitmap face = Bitmap.createBitmap(mSize, mSize, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(face);
+        canvas.translate(mSize / 2, mSize / 2);
+        String[] numbers = mStyle.getNumberType() == ClockStyle.NumberType.ROMAN ? ROMAN_NUMBER_LIST : ARABIC_NUMBER_LIST;
+        drawDial(canvas, mGeometry, numbers);
+        if (mStyle.isShowSubDials()) {
+            drawSubDial(canvas, MINUTES_SUB_DIAL, mGeometry, MINUTES_NUMBER_LIST);
+            drawSubDial(canvas, TENTHS_SUB_DIAL, mTenthsGeometry, TENTHS_NUMBER_LIST);
+        }
+        return face;
+    }
+
+    /**
+     * Uses a face another renderer of the same style and size has rendered, until the size or
+     * the face style changes. Must be called after {@link #setSize(int)}.
+     */
+    void setFace(Bitmap face) {
+        resolve();
+        mFace = face;
+    }
+
+    private void drawSubDial(Canvas canvas, int subDial, ClockGeometry geometry, String[] numbers) {
+        canvas.save();
+        canvas.translate(getSubDialCenterX(subDial), 0);
+        canvas.scale(SUB_DIAL_SCALE, SUB_DIAL_SCALE);
+        drawDial(canvas, geometry, numbers);
+        canvas.restore();
+    }
+
+    private void drawDial(Canvas canvas, ClockGeometry geometry, String[] numbers) {
+        drawClockFace(canvas, geometry);
+        drawOuterRim(canvas, geometry);
+        if (mStyle.isShowThickMarkers()) {
+            drawThickMarkers(canvas, geometry);
+        }
+        if (mStyle.isShowThinMarkers()) {
+            drawThinMarkers(canvas, geometry);
+        }
+        if (mStyle.isShowNumbers()) {
+            drawNumbers(canvas, geometry, numbers);
+        }
+        drawInnerRim(canvas, geometry);
+    }
+
+    private void drawClockFace(Canvas canvas, ClockGeometry geometry) {
+        if (geometry.facePath != null) {
+            canvas.drawPath(geometry.facePath, mPaints.clockFace);
+        } else {
+            canvas.drawCircle(0, 0, geometry.faceRadius, mPaints.clockFace);
+        }
+    }
+
+    private void drawThickMarkers(Canvas canvas, ClockGeometry geometry) {
+        if (geometry.thickMarkerPath != null) {
+            canvas.drawPath(geometry.thickMarkerPath, mPaints.thickMarkerFill);
+        } else {
+            canvas.drawLines(geometry.thickMarkerLines, mPaints.thickMarker);
+        }
+    }
+
+    private void drawThinMarkers(Canvas canvas, ClockGeometry geometry) {
+        if (geometry.thinMarkerPath != null) {
+            canvas.drawPath(geometry.thinMarkerPath, mPaints.thinMarkerFill);
+        } else {
+            canvas.drawLines(geometry.thinMarkerLines, mPaints.thinMarker);
+        }
+    }
+
+    private void drawOuterRim(Canvas canvas, ClockGeometry geometry) {
+        if (geometry.outerRimPath != null) {
+            canvas.drawPath(geometry.outerRimPath, mPaints.outerRim);
+        } else {
+            canvas.drawCircle(0, 0, geometry.outerRimRadius, mPaints.outerRim);
+        }
+    }
+
+    private void drawNumbers(Canvas canvas, ClockGeometry geometry, String[] numbers) {
+        for (int i = 0; i < numbers.length; i++) {
+            canvas.drawText(numbers[i], geometry.numberX[i], geometry.numberY[i], mPaints.number);
+        }
+    }
+
+    private void drawInnerRim(Canvas canvas, ClockGeometry geometry) {
+        canvas.drawCircle(0, 0, geometry.innerRimRadius, mPaints.innerRim);
+    }
+
+    /**
+     * Draws a hand from the clock center, which must be the canvas origin. A skin hand is only
+     * rotated into place, its path was scaled when the size was set.
+     */
+    void drawHand(Canvas canvas, int hand, float angle) {
+        resolve();
+        Path path = mGeometry.handPaths[hand];
+        if (path != null) {
+            canvas.save();
+            canvas.rotate((float) Math.toDegrees(angle) + 90);
+            canvas.drawPath(path, getHandFillPaint(hand));
+            canvas.restore();
+            return;
+        }
+        float radius = getHandRadius(hand);
+        canvas.drawLine(0, 0, radius * (float) Math.cos(angle), radius * (float) Math.sin(angle), getHandPaint(hand));
+    }
+
+    /**
+     * Draws the hand of a sub-dial with the sweep hand paint. The clock center must be the canvas
+     * origin.
+     */
+    void drawSubDialHand(Canvas canvas, int subDial, float angle) {
+        resolve();
+        float x = getSubDialCenterX(subDial);
+        float radius = mGeometry.minuteHandRadius * SUB_DIAL_SCALE;
+        canvas.drawLine(x, 0, x + radius * (float) Math.cos(angle), radius * (float) Math.sin(angle), mPaints.sweepHand);
+    }
+
+    /**
+     * @return the horizontal distance of a sub-dial center from the clock center
+     */
+    float getSubDialCenterX(int subDial) {
+        float offset = mGeometry.faceRadius * SUB_DIAL_OFFSET;
+        return subDial == MINUTES_SUB_DIAL ? -offset : offset;
+    }
+
+    float getSubDialRadius() {
+        return mGeometry.faceRadius * SUB_DIAL_SCALE;
+    }
+
+    /**
+     * Draws the center circle around the canvas origin.
+     */
+    void drawCenter(Canvas canvas) {
+        resolve();
+        canvas.drawCircle(0, 0, mStyle.getCenterCircleRadius(), mPaints.centerCircle);
+    }
+
+    float getHandRadius(int hand) {
+        switch (hand) {
+            case HOUR_HAND:
+                return mGeometry.hourHandRadius;
+            case MINUTE_HAND:
+                return mGeometry.minuteHandRadius;
+            default:
+                return mGeometry.sweepHandRadius;
+        }
+    }
+
+    Paint getHandPaint(int hand) {
+        resolve();
+        switch (hand) {
+            case HOUR_HAND:
+                return mPaints.hourHand;
+            case MINUTE_HAND:
+                return mPaints.minuteHand;
+            default:
+                return mPaints.sweepHand;
+        }
+    }
+
+    private Paint getHandFillPaint(int hand) {
+        switch (hand) {
+            case HOUR_HAND:
+                return mPaints.hourHandFill;
+            case MINUTE_HAND:
+                return mPaints.minuteHandFill;
+            default:
+                return mPaints.sweepHandFill;
+        }
+    }
+
+    /**
+     * Gets the bounds of a hand pointing to 12 o'clock, relative to the clock center.
+     */
+    void getHandBounds(int hand, RectF outBounds) {
+        resolve();
+        if (mGeometry.handPaths[hand] != null) {
+            outBounds.set(mGeometry.handBounds[hand]);
+        } else {
+            float halfWidth = getHandPaint(hand).getStrokeWidth() / 2;
+            outBounds.set(-halfWidth, -getHandRadius(hand), halfWidth, 0);
+        }
+    }
+
+    boolean isHandShown(int hand) {
+        return hand != SWEEP_HAND || mStyle.isShowSweepHand();
+    }
+
+    /**
+     * @return the angle of a hand in radians, clockwise from 3 o'clock
+     */
+    static float computeHandAngle(int hand, float hour, float minute, float second, int milliSecond) {
+        switch (hand) {
+            case HOUR_HAND:
+                return (float) ((hour - 3) * Math.PI / 6 + minute * Math.PI / 360 + second * Math.PI / 21600);
+            case MINUTE_HAND:
+                return (float) ((minute - 15) * Math.PI / 30 + second * Math.PI / 1800);
+            default:
+                return (float) ((milliSecond - 15000) * Math.PI / 30000);
+        }
+    }
+
+    /**
+     * @return the angle of a sub-dial hand in radians, clockwise from 3 o'clock. The minutes
+     * sub-dial turns once an hour in steps of a second, the tenths sub-dial once a second in
+     * steps of a tenth.
+     */
+    static float computeSubDialAngle(int subDial, long elapsedMillis) {
+        if (subDial == MINUTES_SUB_DIAL) {
+            return (float) ((elapsedMillis / 1000 % 3600 - 900) * Math.PI / 1800);
+        }
+        return (float) ((elapsedMillis % 1000 / 100 - 2.5) * Math.PI / 5);
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.chenglei1986.clock;
+
+import android.graphics.Path;
+
+/**
+ * Supplies the shapes a clock is drawn with, e.g. for branded, tapered or counterweighted hands.
+ * Set one with {@link ClockStyle.Builder#setSkin(ClockSkin)}.
+ * <p>
+ * Shapes are given in unit coordinates around the clock center, pointing to 12 o'clock. They
+ * are scaled once whenever the clock changes size and only rotated into place when a frame is
+ * drawn, so a frame never builds a path. Hands and markers are filled with the color of their
+ * style property, the face with the face color, and the outer rim follows the face outline.
+ * <p>
+ * Every method may return {@code null} to keep the default shape. The returned paths are read
+ * on whatever thread renders the clock and must not be modified afterwards.
+ */
+public interface ClockSkin {
+
+    /**
+     * @return the outline of the face, in units of the face radius
+     */
+    Path getFacePath();
+
+    /**
+     * @return the marker at 12 o'clock, repeated for every hour, in units of the face radius
+     */
+    Path getThickMarkerPath();
+
+    /**
+     * @return the marker at 12 o'clock, repeated for every minute without a thick marker, in
+     * units of the face radius
+     */
+    Path getThinMarkerPath();
+
+    /**
+     * @return the hour hand with its pivot at the origin and its tip at (0, -1), in units of the
+     * hand length
+     */
+    Path getHourHandPath();
+
+    /**
+     * @return the minute hand, see {@link #getHourHandPath()}
+     */
+    Path getMinuteHandPath();
+
+    /**
+     * @return the sweep hand, see {@link #getHourHandPath()}
+     */
+    Path getSweepHandPath();
+}
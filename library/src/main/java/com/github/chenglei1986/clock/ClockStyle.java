@@ -0,0 +1,667 @@
+package com.github.chenglei1986.clock;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+import android.util.TypedValue;
+
+/**
+ * Immutable description of how a clock looks. Two styles that are {@link #equals(Object) equal}
+ * draw identical clocks, which is what lets {@link ClockCache} share rendered faces and paints
+ * between views. Sizes are in pixels.
+ */
+public final class ClockStyle {
+
+    static final int DEFAULT_CLOCK_FACE_COLOR = Color.parseColor("#A9ADB0");
+    static final int DEFAULT_OUTER_RIM_COLOR = Color.BLACK;
+    static final int DEFAULT_INNER_RIM_COLOR = Color.BLACK;
+    static final int DEFAULT_THICK_MARKER_COLOR = Color.BLACK;
+    static final int DEFAULT_THIN_MARKER_COLOR = Color.BLACK;
+    static final int DEFAULT_NUMBER_TEXT_COLOR = Color.BLACK;
+    static final int DEFAULT_HOUR_HAND_COLOR = Color.BLACK;
+    static final int DEFAULT_MINUTE_HAND_COLOR = Color.BLACK;
+    static final int DEFAULT_SWEEP_HAND_COLOR = Color.BLACK;
+    static final int DEFAULT_CENTER_CIRCLE_COLOR = Color.BLACK;
+
+    // In dp, converted to pixels when a Builder is created rather than when the class loads.
+    static final float DEFAULT_OUTER_RIM_WIDTH = 1;
+    static final float DEFAULT_INNER_RIM_WIDTH = 1;
+    static final float DEFAULT_THICK_MARKER_WIDTH = 3;
+    static final float DEFAULT_THIN_MARKER_WIDTH = 1;
+    static final float DEFAULT_NUMBER_TEXT_SIZE = 18;
+    static final float DEFAULT_HOUR_HAND_WIDTH = 5;
+    static final float DEFAULT_MINUTE_HAND_WIDTH = 3;
+    static final float DEFAULT_SWEEP_HAND_WIDTH = 1;
+    static final float DEFAULT_CENTER_CIRCLE_RADIUS = 5;
+
+    public enum NumberType {
+        ARABIC, ROMAN
+    }
+
+    private final int mClockFaceColor;
+    private final int mOuterRimColor;
+    private final int mInnerRimColor;
+    private final int mThickMarkerColor;
+    private final int mThinMarkerColor;
+    private final int mNumberTextColor;
+    private final int mHourHandColor;
+    private final int mMinuteHandColor;
+    private final int mSweepHandColor;
+    private final int mCenterCircleColor;
+
+    private final float mOuterRimWidth;
+    private final float mInnerRimWidth;
+    private final float mThickMarkerWidth;
+    private final float mThinMarkerWidth;
+    private final float mNumberTextSize;
+    private final float mHourHandWidth;
+    private final float mMinuteHandWidth;
+    private final float mSweepHandWidth;
+    private final float mCenterCircleRadius;
+
+    private final boolean mShowThickMarkers;
+    private final boolean mShowThinMarkers;
+    private final boolean mShowNumbers;
+    private final boolean mShowSweepHand;
+    private final boolean mShowSubDials;
+    private final boolean mAntiAlias;
+
+    private final NumberType mNumberType;
+    private final ClockSkin mSkin;
+
+    /**
+     * The density of the display metrics the style was built for. Sizes the style has no
+     * property for, e.g. the marker lengths, are converted from dp with it, so they match the
+     * widths and text size.
+     */
+    private final float mDensity;
+
+    /**
+     * Built on first use. Styles are shared between threads, so the field is volatile; two
+     * threads racing on it build equal styles and either one may win.
+     */
+    private volatile ClockStyle mAmbientStyle;
+
+    private ClockStyle(Builder builder) {
+        mClockFaceColor = builder.mClockFaceColor;
+        mOuterRimColor = builder.mOuterRimColor;
+        mInnerRimColor = builder.mInnerRimColor;
+        mThickMarkerColor = builder.mThickMarkerColor;
+        mThinMarkerColor = builder.mThinMarkerColor;
+        mNumberTextColor = builder.mNumberTextColor;
+        mHourHandColor = builder.mHourHandColor;
+        mMinuteHandColor = builder.mMinuteHandColor;
+        mSweepHandColor = builder.mSweepHandColor;
+        mCenterCircleColor = builder.mCenterCircleColor;
+        mOuterRimWidth = builder.mOuterRimWidth;
+        mInnerRimWidth = builder.mInnerRimWidth;
+        mThickMarkerWidth = builder.mThickMarkerWidth;
+        mThinMarkerWidth = builder.mThinMarkerWidth;
+        mNumberTextSize = builder.mNumberTextSize;
+        mHourHandWidth = builder.mHourHandWidth;
+        mMinuteHandWidth = builder.mMinuteHandWidth;
+        mSweepHandWidth = builder.mSweepHandWidth;
+        mCenterCircleRadius = builder.mCenterCircleRadius;
+        mShowThickMarkers = builder.mShowThickMarkers;
+        mShowThinMarkers = builder.mShowThinMarkers;
+        mShowNumbers = builder.mShowNumbers;
+        mShowSweepHand = builder.mShowSweepHand;
+        mShowSubDials = builder.mShowSubDials;
+        mAntiAlias = builder.mAntiAlias;
+        mNumberType = builder.mNumberType;
+        mSkin = builder.mSkin;
+        mDensity = builder.mDensity;
+    }
+
+    public int getClockFaceColor() {
+        return mClockFaceColor;
+    }
+
+    public int getOuterRimColor() {
+        return mOuterRimColor;
+    }
+
+    public int getInnerRimColor() {
+        return mInnerRimColor;
+    }
+
+    public int getThickMarkerColor() {
+        return mThickMarkerColor;
+    }
+
+    public int getThinMarkerColor() {
+        return mThinMarkerColor;
+    }
+
+    public int getNumberTextColor() {
+        return mNumberTextColor;
+    }
+
+    public int getHourHandColor() {
+        return mHourHandColor;
+    }
+
+    public int getMinuteHandColor() {
+        return mMinuteHandColor;
+    }
+
+    public int getSweepHandColor() {
+        return mSweepHandColor;
+    }
+
+    public int getCenterCircleColor() {
+        return mCenterCircleColor;
+    }
+
+    public float getOuterRimWidth() {
+        return mOuterRimWidth;
+    }
+
+    public float getInnerRimWidth() {
+        return mInnerRimWidth;
+    }
+
+    public float getThickMarkerWidth() {
+        return mThickMarkerWidth;
+    }
+
+    public float getThinMarkerWidth() {
+        return mThinMarkerWidth;
+    }
+
+    public float getNumberTextSize() {
+        return mNumberTextSize;
+    }
+
+    public float getHourHandWidth() {
+        return mHourHandWidth;
+    }
+
+    public float getMinuteHandWidth() {
+        return mMinuteHandWidth;
+    }
+
+    public float getSweepHandWidth() {
+        return mSweepHandWidth;
+    }
+
+    public float getCenterCircleRadius() {
+        return mCenterCircleRadius;
+    }
+
+    public boolean isShowThickMarkers() {
+        return mShowThickMarkers;
+    }
+
+    public boolean isShowThinMarkers() {
+        return mShowThinMarkers;
+    }
+
+    public boolean isShowNumbers() {
+        return mShowNumbers;
+    }
+
+    public boolean isShowSweepHand() {
+        return mShowSweepHand;
+    }
+
+    /**
+     * @return whether the face has the minutes and tenths sub-dials a {@link Chronograph} drives
+     */
+    public boolean isShowSubDials() {
+        return mShowSubDials;
+    }
+
+    public boolean isAntiAlias() {
+        return mAntiAlias;
+    }
+
+    public NumberType getNumberType() {
+        return mNumberType;
+    }
+
+    /**
+     * @return the shapes of hands, markers and face, or {@code null} for the default lines and
+     * circles
+     */
+    public ClockSkin getSkin() {
+        return mSkin;
+    }
+
+    /**
+     * @return the given number of dp in pixels, for the display metrics the style was built for
+     */
+    float dipToPx(float dipValue) {
+        return dipValue * mDensity;
+    }
+
+    /**
+     * @return a builder initialized with this style, to derive a style that differs in a few
+     * properties
+     */
+    public Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    /**
+     * The low-power variant of this style for always-on screens: white markings on a black face,
+     * without anti-aliasing, thin markers or sweep hand. The sub-dial hands, which are drawn in
+     * the sweep hand color, turn white too. Sizes and the remaining flags are kept.
+     */
+    public ClockStyle getAmbientStyle() {
+        ClockStyle ambientStyle = mAmbientStyle;
+        if (ambientStyle == null) {
+            ambientStyle = buildUpon()
+                    .setClockFaceColor(Color.BLACK)
+                    .setOuterRimColor(Color.WHITE)
+                    .setInnerRimColor(Color.WHITE)
+                    .setThickMarkerColor(Color.WHITE)
+                    .setNumberTextColor(Color.WHITE)
+                    .setHourHandColor(Color.WHITE)
+                    .setMinuteHandColor(Color.WHITE)
+                    .setSweepHandColor(Color.WHITE)
+                    .setCenterCircleColor(Color.WHITE)
+                    .setShowThinMarkers(false)
+                    .setShowSweepHand(false)
+                    .setAntiAlias(false)
+                    .build();
+            mAmbientStyle = ambientStyle;
+        }
+        return ambientStyle;
+    }
+
+    /**
+     * @return whether both styles render the same static face, regardless of how the hands look
+     */
+    boolean hasSameFace(ClockStyle other) {
+        return mClockFaceColor == other.mClockFaceColor
+                && mOuterRimColor == other.mOuterRimColor
+                && mInnerRimColor == other.mInnerRimColor
+                && mThickMarkerColor == other.mThickMarkerColor
+                && mThinMarkerColor == other.mThinMarkerColor
+                && mNumberTextColor == other.mNumberTextColor
+                && mOuterRimWidth == other.mOuterRimWidth
+                && mInnerRimWidth == other.mInnerRimWidth
+                && mThickMarkerWidth == other.mThickMarkerWidth
+                && mThinMarkerWidth == other.mThinMarkerWidth
+                && mNumberTextSize == other.mNumberTextSize
+                && mShowThickMarkers == other.mShowThickMarkers
+                && mShowThinMarkers == other.mShowThinMarkers
+                && mShowNumbers == other.mShowNumbers
+                && mShowSubDials == other.mShowSubDials
+                && mAntiAlias == other.mAntiAlias
+                && mNumberType == other.mNumberType
+                && mSkin == other.mSkin
+                && mDensity == other.mDensity;
+    }
+
+    /**
+     * @return whether both styles draw the hour, minute and sweep hands the same way
+     */
+    boolean hasSameHands(ClockStyle other) {
+        return mHourHandColor == other.mHourHandColor
+                && mMinuteHandColor == other.mMinuteHandColor
+                && mSweepHandColor == other.mSweepHandColor
+                && mHourHandWidth == other.mHourHandWidth
+                && mMinuteHandWidth == other.mMinuteHandWidth
+                && mSweepHandWidth == other.mSweepHandWidth
+                && mAntiAlias == other.mAntiAlias
+                && mSkin == other.mSkin
+                && mDensity == other.mDensity;
+    }
+
+    /**
+     * Hash code consistent with {@link #hasSameFace(ClockStyle)}.
+     */
+    int faceHashCode() {
+        int result = mClockFaceColor;
+        result = 31 * result + mOuterRimColor;
+        result = 31 * result + mInnerRimColor;
+        result = 31 * result + mThickMarkerColor;
+        result = 31 * result + mThinMarkerColor;
+        result = 31 * result + mNumberTextColor;
+        result = 31 * result + Float.floatToIntBits(mOuterRimWidth);
+        result = 31 * result + Float.floatToIntBits(mInnerRimWidth);
+        result = 31 * result + Float.floatToIntBits(mThickMarkerWidth);
+        result = 31 * result + Float.floatToIntBits(mThinMarkerWidth);
+        result = 31 * result + Float.floatToIntBits(mNumberTextSize);
+        result = 31 * result + (mShowThickMarkers ? 1 : 0);
+        result = 31 * result + (mShowThinMarkers ? 1 : 0);
+        result = 31 * result + (mShowNumbers ? 1 : 0);
+        result = 31 * result + (mShowSubDials ? 1 : 0);
+        result = 31 * result + (mAntiAlias ? 1 : 0);
+        result = 31 * result + mNumberType.ordinal();
+        result = 31 * result + System.identityHashCode(mSkin);
+        result = 31 * result + Float.floatToIntBits(mDensity);
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ClockStyle)) {
+            return false;
+        }
+        ClockStyle other = (ClockStyle) o;
+        return hasSameFace(other)
+                && mHourHandColor == other.mHourHandColor
+                && mMinuteHandColor == other.mMinuteHandColor
+                && mSweepHandColor == other.mSweepHandColor
+                && mCenterCircleColor == other.mCenterCircleColor
+                && mHourHandWidth == other.mHourHandWidth
+                && mMinuteHandWidth == other.mMinuteHandWidth
+                && mSweepHandWidth == other.mSweepHandWidth
+                && mCenterCircleRadius == other.mCenterCircleRadius
+                && mShowSweepHand == other.mShowSweepHand;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = faceHashCode();
+        result = 31 * result + mHourHandColor;
+        result = 31 * result + mMinuteHandColor;
+        result = 31 * result + mSweepHandColor;
+        result = 31 * result + mCenterCircleColor;
+        result = 31 * result + Float.floatToIntBits(mHourHandWidth);
+        result = 31 * result + Float.floatToIntBits(mMinuteHandWidth);
+        result = 31 * result + Float.floatToIntBits(mSweepHandWidth);
+        result = 31 * result + Float.floatToIntBits(mCenterCircleRadius);
+        result = 31 * result + (mShowSweepHand ? 1 : 0);
+        return result;
+    }
+
+    /**
+     * Reads a style from {@code ClockView} attributes, e.g. those of a layout element, without
+     * inflating a view. Missing attributes get the defaults.
+     */
+    public static ClockStyle fromAttributes(Context context, AttributeSet attrs) {
+        TypedArray attr = context.obtainStyledAttributes(attrs, R.styleable.ClockView);
+        ClockStyle style = fromAttributes(context, attr);
+        attr.recycle();
+        return style;
+    }
+
+    /**
+     * Reads a style from a style resource whose items are {@code ClockView} attributes, so one
+     * style can be defined in XML and shared by views, renderers and batch renderers. Missing
+     * attributes get the defaults.
+     */
+    public static ClockStyle fromStyle(Context context, int styleRes) {
+        TypedArray attr = context.obtainStyledAttributes(styleRes, R.styleable.ClockView);
+        ClockStyle style = fromAttributes(context, attr);
+        attr.recycle();
+        return style;
+    }
+
+    /**
+     * Reads a style from the {@code ClockView} attributes, using the defaults for missing ones.
+     */
+    static ClockStyle fromAttributes(Context context, TypedArray attr) {
+        Builder defaults = new Builder(context.getResources().getDisplayMetrics());
+        return defaults
+                .setClockFaceColor(attr.getColor(R.styleable.ClockView_clockFaceColor, DEFAULT_CLOCK_FACE_COLOR))
+                .setOuterRimColor(attr.getColor(R.styleable.ClockView_outerRimColor, DEFAULT_OUTER_RIM_COLOR))
+                .setInnerRimColor(attr.getColor(R.styleable.ClockView_innerRimColor, DEFAULT_INNER_RIM_COLOR))
+                .setThickMarkerColor(attr.getColor(R.styleable.ClockView_thickMarkerColor, DEFAULT_THICK_MARKER_COLOR))
+                .setThinMarkerColor(attr.getColor(R.styleable.ClockView_thinMarkerColor, DEFAULT_THIN_MARKER_COLOR))
+                .setNumberTextColor(attr.getColor(R.styleable.ClockView_numberTextColor, DEFAULT_NUMBER_TEXT_COLOR))
+                .setHourHandColor(attr.getColor(R.styleable.ClockView_hourHandColor, DEFAULT_HOUR_HAND_COLOR))
+                .setMinuteHandColor(attr.getColor(R.styleable.ClockView_minuteHandColor, DEFAULT_MINUTE_HAND_COLOR))
+                .setSweepHandColor(attr.getColor(R.styleable.ClockView_sweepHandColor, DEFAULT_SWEEP_HAND_COLOR))
+                .setCenterCircleColor(attr.getColor(R.styleable.ClockView_centerCircleColor, DEFAULT_CENTER_CIRCLE_COLOR))
+                .setOuterRimWidth(attr.getDimension(R.styleable.ClockView_outerRimWidth, defaults.mOuterRimWidth))
+                .setInnerRimWidth(attr.getDimension(R.styleable.ClockView_innerRimWidth, defaults.mInnerRimWidth))
+                .setThickMarkerWidth(attr.getDimension(R.styleable.ClockView_thickMarkerWidth, defaults.mThickMarkerWidth))
+                .setThinMarkerWidth(attr.getDimension(R.styleable.ClockView_thinMarkerWidth, defaults.mThinMarkerWidth))
+                .setNumberTextSize(attr.getDimension(R.styleable.ClockView_numberTextSize, defaults.mNumberTextSize))
+                .setHourHandWidth(attr.getDimension(R.styleable.ClockView_hourHandWidth, defaults.mHourHandWidth))
+                .setMinuteHandWidth(attr.getDimension(R.styleable.ClockView_minuteHandWidth, defaults.mMinuteHandWidth))
+                .setSweepHandWidth(attr.getDimension(R.styleable.ClockView_sweepHandWidth, defaults.mSweepHandWidth))
+                .setCenterCircleRadius(attr.getDimension(R.styleable.ClockView_centerCircleRadius, defaults.mCenterCircleRadius))
+                .setShowThickMarkers(attr.getBoolean(R.styleable.ClockView_showThickMarkers, true))
+                .setShowThinMarkers(attr.getBoolean(R.styleable.ClockView_showThinMarkers, true))
+                .setShowNumbers(attr.getBoolean(R.styleable.ClockView_showNumbers, true))
+                .setShowSweepHand(attr.getBoolean(R.styleable.ClockView_showSweepHand, true))
+                .setShowSubDials(attr.getBoolean(R.styleable.ClockView_showSubDials, false))
+                .setNumberType(NumberType.values()[attr.getInt(R.styleable.ClockView_numberType, 0)])
+                .build();
+    }
+
+    static float dipToPx(DisplayMetrics metrics, float dipValue) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dipValue, metrics);
+    }
+
+    public static final class Builder {
+
+        private int mClockFaceColor = DEFAULT_CLOCK_FACE_COLOR;
+        private int mOuterRimColor = DEFAULT_OUTER_RIM_COLOR;
+        private int mInnerRimColor = DEFAULT_INNER_RIM_COLOR;
+        private int mThickMarkerColor = DEFAULT_THICK_MARKER_COLOR;
+        private int mThinMarkerColor = DEFAULT_THIN_MARKER_COLOR;
+        private int mNumberTextColor = DEFAULT_NUMBER_TEXT_COLOR;
+        private int mHourHandColor = DEFAULT_HOUR_HAND_COLOR;
+        private int mMinuteHandColor = DEFAULT_MINUTE_HAND_COLOR;
+        private int mSweepHandColor = DEFAULT_SWEEP_HAND_COLOR;
+        private int mCenterCircleColor = DEFAULT_CENTER_CIRCLE_COLOR;
+
+        private float mOuterRimWidth;
+        private float mInnerRimWidth;
+        private float mThickMarkerWidth;
+        private float mThinMarkerWidth;
+        private float mNumberTextSize;
+        private float mHourHandWidth;
+        private float mMinuteHandWidth;
+        private float mSweepHandWidth;
+        private float mCenterCircleRadius;
+
+        private boolean mShowThickMarkers = true;
+        private boolean mShowThinMarkers = true;
+        private boolean mShowNumbers = true;
+        private boolean mShowSweepHand = true;
+        private boolean mShowSubDials;
+        private boolean mAntiAlias = true;
+
+        private NumberType mNumberType = NumberType.ARABIC;
+        private ClockSkin mSkin;
+        private final float mDensity;
+
+        /**
+         * Starts from the default style, sized for the system display metrics.
+         */
+        public Builder() {
+            this(Resources.getSystem().getDisplayMetrics());
+        }
+
+        Builder(DisplayMetrics metrics) {
+            mDensity = metrics.density;
+            mOuterRimWidth = dipToPx(metrics, DEFAULT_OUTER_RIM_WIDTH);
+            mInnerRimWidth = dipToPx(metrics, DEFAULT_INNER_RIM_WIDTH);
+            mThickMarkerWidth = dipToPx(metrics, DEFAULT_THICK_MARKER_WIDTH);
+            mThinMarkerWidth = dipToPx(metrics, DEFAULT_THIN_MARKER_WIDTH);
+            mNumberTextSize = dipToPx(metrics, DEFAULT_NUMBER_TEXT_SIZE);
+            mHourHandWidth = dipToPx(metrics, DEFAULT_HOUR_HAND_WIDTH);
+            mMinuteHandWidth = dipToPx(metrics, DEFAULT_MINUTE_HAND_WIDTH);
+            mSweepHandWidth = dipToPx(metrics, DEFAULT_SWEEP_HAND_WIDTH);
+            mCenterCircleRadius = dipToPx(metrics, DEFAULT_CENTER_CIRCLE_RADIUS);
+        }
+
+        public Builder(ClockStyle style) {
+            mClockFaceColor = style.mClockFaceColor;
+            mOuterRimColor = style.mOuterRimColor;
+            mInnerRimColor = style.mInnerRimColor;
+            mThickMarkerColor = style.mThickMarkerColor;
+            mThinMarkerColor = style.mThinMarkerColor;
+            mNumberTextColor = style.mNumberTextColor;
+            mHourHandColor = style.mHourHandColor;
+            mMinuteHandColor = style.mMinuteHandColor;
+            mSweepHandColor = style.mSweepHandColor;
+            mCenterCircleColor = style.mCenterCircleColor;
+            mOuterRimWidth = style.mOuterRimWidth;
+            mInnerRimWidth = style.mInnerRimWidth;
+            mThickMarkerWidth = style.mThickMarkerWidth;
+            mThinMarkerWidth = style.mThinMarkerWidth;
+            mNumberTextSize = style.mNumberTextSize;
+            mHourHandWidth = style.mHourHandWidth;
+            mMinuteHandWidth = style.mMinuteHandWidth;
+            mSweepHandWidth = style.mSweepHandWidth;
+            mCenterCircleRadius = style.mCenterCircleRadius;
+            mShowThickMarkers = style.mShowThickMarkers;
+            mShowThinMarkers = style.mShowThinMarkers;
+            mShowNumbers = style.mShowNumbers;
+            mShowSweepHand = style.mShowSweepHand;
+            mShowSubDials = style.mShowSubDials;
+            mAntiAlias = style.mAntiAlias;
+            mNumberType = style.mNumberType;
+            mSkin = style.mSkin;
+            mDensity = style.mDensity;
+        }
+
+        public Builder setClockFaceColor(int color) {
+            mClockFaceColor = color;
+            return this;
+        }
+
+        public Builder setOuterRimColor(int color) {
+            mOuterRimColor = color;
+            return this;
+        }
+
+        public Builder setInnerRimColor(int color) {
+            mInnerRimColor = color;
+            return this;
+        }
+
+        public Builder setThickMarkerColor(int color) {
+            mThickMarkerColor = color;
+            return this;
+        }
+
+        public Builder setThinMarkerColor(int color) {
+            mThinMarkerColor = color;
+            return this;
+        }
+
+        public Builder setNumberTextColor(int color) {
+            mNumberTextColor = color;
+            return this;
+        }
+
+        public Builder setHourHandColor(int color) {
+            mHourHandColor = color;
+            return this;
+        }
+
+        public Builder setMinuteHandColor(int color) {
+            mMinuteHandColor = color;
+            return this;
+        }
+
+        public Builder setSweepHandColor(int color) {
+            mSweepHandColor = color;
+            return this;
+        }
+
+        public Builder setCenterCircleColor(int color) {
+            mCenterCircleColor = color;
+            return this;
+        }
+
+        public Builder setOuterRimWidth(float width) {
+            mOuterRimWidth = width;
+            return this;
+        }
+
+        public Builder setInnerRimWidth(float width) {
+            mInnerRimWidth = width;
+            return this;
+        }
+
+        public Builder setThickMarkerWidth(float width) {
+            mThickMarkerWidth = width;
+            return this;
+        }
+
+        public Builder setThinMarkerWidth(float width) {
+            mThinMarkerWidth = width;
+            return this;
+        }
+
+        public Builder setNumberTextSize(float size) {
+            mNumberTextSize = size;
+            return this;
+        }
+
+        public Builder setHourHandWidth(float width) {
+            mHourHandWidth = width;
+            return this;
+        }
+
+        public Builder setMinuteHandWidth(float width) {
+            mMinuteHandWidth = width;
+            return this;
+        }
+
+        public Builder setSweepHandWidth(float width) {
+            mSweepHandWidth = width;
+            return this;
+        }
+
+        public Builder setCenterCircleRadius(float radius) {
+            mCenterCircleRadius = radius;
+            return this;
+        }
+
+        public Builder setShowThickMarkers(boolean show) {
+            mShowThickMarkers = show;
+            return this;
+        }
+
+        public Builder setShowThinMarkers(boolean show) {
+            mShowThinMarkers = show;
+            return this;
+        }
+
+        public Builder setShowNumbers(boolean show) {
+            mShowNumbers = show;
+            return this;
+        }
+
+        public Builder setShowSweepHand(boolean show) {
+            mShowSweepHand = show;
+            return this;
+        }
+
+        public Builder setShowSubDials(boolean show) {
+            mShowSubDials = show;
+            return this;
+        }
+
+        public Builder setAntiAlias(boolean antiAlias) {
+            mAntiAlias = antiAlias;
+            return this;
+        }
+
+        public Builder setNumberType(NumberType numberType) {
+            mNumberType = numberType;
+            return this;
+        }
+
+        /**
+         * @param skin the shapes of hands, markers and face, or {@code null} for the default
+         *             lines and circles
+         */
+        public Builder setSkin(ClockSkin skin) {
+            mSkin = skin;
+            return this;
+        }
+
+        public ClockStyle build() {
+            return new ClockStyle(this);
+        }
+    }
+}
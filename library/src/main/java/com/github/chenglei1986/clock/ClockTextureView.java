@@ -0,0 +1,425 @@
+package com.github.chenglei1986.clock;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.SurfaceTexture;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Message;
+import android.os.Process;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.Surface;
+import android.view.TextureView;
+import android.view.View;
+
+import java.util.TimeZone;
+
+/**
+ * A clock that takes the same attributes as {@link ClockView}, but draws on its own render
+ * thread, so that the sweep hand keeps moving smoothly while the UI thread is busy. Frames are
+ * paced to vsync with a {@link Choreographer} owned by the render thread and drawn with a
+ * hardware canvas where available (API 23+).
+ * <p>
+ * The UI thread only ever hands new state to the render thread through messages; the two never
+ * share a lock. Like {@link ClockView}, it stops drawing while it cannot be seen or the screen is
+ * off, and follows time and time zone changes. The intro animation and hand layers of
+ * {@link ClockView} are not supported. Requires a hardware accelerated window.
+ */
+public class ClockTextureView extends TextureView implements TextureView.SurfaceTextureListener {
+
+    private ClockStyle mStyle;
+    private ClockView.TickMode mTickMode;
+    private int mSweepFrameRate;
+    private TimeSource mTimeSource = TimeSource.SYSTEM;
+    private TimeZone mTimeZone;
+    private String mTimeZoneId;
+
+    private RenderThread mRenderThread;
+    private Surface mSurface;
+    private boolean mAttached;
+    private boolean mWindowVisible;
+    private boolean mScreenOn = true;
+
+    private final ClockTicker.SystemListener mSystemListener = new ClockTicker.SystemListener() {
+        @Override
+        public void onScreenStateChanged(boolean screenOn) {
+            mScreenOn = screenOn;
+            updateRendering();
+        }
+
+        @Override
+        public void onSystemTimeChanged() {
+            refreshTimeZone();
+        }
+    };
+
+    public ClockTextureView(Context context) {
+        this(context, null);
+    }
+
+    public ClockTextureView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public ClockTextureView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        TypedArray attr = context.obtainStyledAttributes(attrs, R.styleable.ClockView);
+        mStyle = ClockStyle.fromAttributes(context, attr);
+        mTimeZoneId = attr.getString(R.styleable.ClockView_timeZoneId);
+        mTickMode = ClockViewHelper.readTickMode(attr);
+        mSweepFrameRate = ClockViewHelper.readSweepFrameRate(attr);
+        attr.recycle();
+
+        mTimeZone = ClockViewHelper.resolveTimeZone(mTimeZoneId);
+        setOpaque(false);
+        setSurfaceTextureListener(this);
+    }
+
+    public ClockStyle getStyle() {
+        return mStyle;
+    }
+
+    public void setStyle(ClockStyle style) {
+        if (style == null) {
+            throw new IllegalArgumentException("style must not be null");
+        }
+        mStyle = style;
+        postToRenderThread(RenderThread.MSG_SET_STYLE, style);
+    }
+
+    public TimeSource getTimeSource() {
+        return mTimeSource;
+    }
+
+    /**
+     * Replaces the wall clock the hands are read from. The time source is called on the render
+     * thread.
+     */
+    public void setTimeSource(TimeSource timeSource) {
+        if (timeSource == null) {
+            throw new IllegalArgumentException("timeSource must not be null");
+        }
+        mTimeSource = timeSource;
+        postToRenderThread(RenderThread.MSG_SET_TIME_SOURCE, timeSource);
+    }
+
+    public ClockView.TickMode getTickMode() {
+        return mTickMode;
+    }
+
+    public void setTickMode(ClockView.TickMode tickMode) {
+        if (tickMode == null) {
+            throw new IllegalArgumentException("tickMode must not be null");
+        }
+        mTickMode = tickMode;
+        postToRenderThread(RenderThread.MSG_SET_TICK_MODE, tickMode);
+    }
+
+    public int getSweepFrameRate() {
+        return mSweepFrameRate;
+    }
+
+    /**
+     * Caps the redraw rate of {@link ClockView.TickMode#SWEEP}. Has no effect in the other modes.
+     */
+    public void setSweepFrameRate(int framesPerSecond) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("framesPerSecond must be positive");
+        }
+        mSweepFrameRate = framesPerSecond;
+        postToRenderThread(RenderThread.MSG_SET_SWEEP_FRAME_RATE, framesPerSecond);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        setMeasuredDimension(ClockViewHelper.measure(getContext(), widthMeasureSpec),
+                ClockViewHelper.measure(getContext(), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAttached = true;
+        ClockTicker ticker = ClockTicker.getInstance();
+        ticker.addSystemListener(getContext(), mSystemListener);
+        mScreenOn = ticker.isScreenOn();
+        // The time or the zone may have changed while we were not listening.
+        refreshTimeZone();
+        updateRendering();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mAttached = false;
+        ClockTicker.getInstance().removeSystemListener(mSystemListener);
+        updateRendering();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateRendering();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        mWindowVisible = visibility == VISIBLE;
+        updateRendering();
+    }
+
+    private void updateRendering() {
+        postToRenderThread(RenderThread.MSG_SET_RENDERING, mAttached && mWindowVisible && mScreenOn && isShown());
+    }
+
+    /**
+     * Follows the system default time zone unless a fixed one was set. Handing the render thread
+     * its own copy also makes the renderer forget its cached zone offset.
+     */
+    private void refreshTimeZone() {
+        if (TextUtils.isEmpty(mTimeZoneId)) {
+            mTimeZone = TimeZone.getDefault();
+        }
+        mTimeZone = (TimeZone) mTimeZone.clone();
+        postToRenderThread(RenderThread.MSG_SET_TIME_ZONE, mTimeZone);
+    }
+
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surfaceTexture, int width, int height) {
+        mRenderThread = new RenderThread(mStyle, mTimeZone, mTimeSource, mTickMode, mSweepFrameRate,
+                ClockViewHelper.getRefreshRate(getContext()));
+        mRenderThread.start();
+        mSurface = new Surface(surfaceTexture);
+        postToRenderThread(RenderThread.MSG_SET_SURFACE, mSurface);
+        mRenderThread.post(RenderThread.MSG_SET_SIZE, width, height);
+        updateRendering();
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surfaceTexture, int width, int height) {
+        if (mRenderThread != null) {
+            mRenderThread.post(RenderThread.MSG_SET_SIZE, width, height);
+        }
+    }
+
+    /**
+     * Stops the render thread and waits for it, so that no frame is drawn into the surface once
+     * it has been released.
+     */
+    @Override
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture surfaceTexture) {
+        if (mRenderThread != null) {
+            mRenderThread.quit();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    mRenderThread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            mRenderThread = null;
+            mSurface.release();
+            mSurface = null;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surfaceTexture) {
+    }
+
+    private void postToRenderThread(int what, Object value) {
+        if (mRenderThread != null) {
+            mRenderThread.post(what, value);
+        }
+    }
+
+    /**
+     * Owns the renderer and draws into the surface. All of its state is only touched on its own
+     * thread.
+     */
+    private static final class RenderThread extends HandlerThread implements Handler.Callback {
+
+        static final int MSG_SET_SURFACE = 0;
+        static final int MSG_SET_SIZE = 1;
+        static final int MSG_SET_RENDERING = 2;
+        static final int MSG_SET_STYLE = 3;
+        static final int MSG_SET_TIME_ZONE = 4;
+        static final int MSG_SET_TIME_SOURCE = 5;
+        static final int MSG_SET_TICK_MODE = 6;
+        static final int MSG_SET_SWEEP_FRAME_RATE = 7;
+        private static final int MSG_DRAW_FRAME = 8;
+
+        private final ClockRenderer mRenderer;
+        private TimeSource mTimeSource;
+        private ClockView.TickMode mTickMode;
+        private int mSweepFrameRate;
+        private final long mVsyncMillis;
+
+        private Handler mHandler;
+        private VsyncScheduler mVsyncScheduler;
+        private final Runnable mDrawFrameRunnable = new Runnable() {
+            @Override
+            public void run() {
+                drawFrame();
+            }
+        };
+        private Surface mSurface;
+        private int mWidth;
+        private int mHeight;
+        private boolean mRendering;
+
+        RenderThread(ClockStyle style, TimeZone timeZone, TimeSource timeSource, ClockView.TickMode tickMode,
+                     int sweepFrameRate, float refreshRate) {
+            super("ClockTextureView", Process.THREAD_PRIORITY_DISPLAY);
+            mRenderer = new ClockRenderer(style);
+            mRenderer.setTimeZone(timeZone);
+            mTimeSource = timeSource;
+            mTickMode = tickMode;
+            mSweepFrameRate = sweepFrameRate;
+            mVsyncMillis = (long) (1000 / refreshRate);
+        }
+
+        /**
+         * Messages sent before the looper exists are queued by the handler created in
+         * {@link #start()}, so nothing is lost between starting the thread and its first frame.
+         */
+        @Override
+        public synchronized void start() {
+            super.start();
+            mHandler = new Handler(getLooper(), this);
+        }
+
+        @Override
+        protected void onLooperPrepared() {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                mVsyncScheduler = new VsyncScheduler(mDrawFrameRunnable);
+            }
+        }
+
+        void post(int what, Object value) {
+            mHandler.obtainMessage(what, value).sendToTarget();
+        }
+
+        void post(int what, int arg1, int arg2) {
+            mHandler.obtainMessage(what, arg1, arg2).sendToTarget();
+        }
+
+        @Override
+        public boolean handleMessage(Message msg) {
+            switch (msg.what) {
+                case MSG_SET_SURFACE:
+                    mSurface = (Surface) msg.obj;
+                    break;
+                case MSG_SET_SIZE:
+                    mWidth = msg.arg1;
+                    mHeight = msg.arg2;
+                    int size = Math.min(mWidth, mHeight) / 2 * 2;
+                    mRenderer.setSize(size);
+                    break;
+                case MSG_SET_RENDERING:
+                    mRendering = (Boolean) msg.obj;
+                    break;
+                case MSG_SET_STYLE:
+                    mRenderer.setStyle((ClockStyle) msg.obj);
+                    break;
+                case MSG_SET_TIME_ZONE:
+                    mRenderer.setTimeZone((TimeZone) msg.obj);
+                    break;
+                case MSG_SET_TIME_SOURCE:
+                    mTimeSource = (TimeSource) msg.obj;
+                    break;
+                case MSG_SET_TICK_MODE:
+                    mTickMode = (ClockView.TickMode) msg.obj;
+                    break;
+                case MSG_SET_SWEEP_FRAME_RATE:
+                    mSweepFrameRate = (Integer) msg.obj;
+                    break;
+                case MSG_DRAW_FRAME:
+                    drawFrame();
+                    return true;
+                default:
+                    return false;
+            }
+            // Any change shows up right away; the regular schedule resumes from there.
+            drawFrame();
+            return true;
+        }
+
+        private void drawFrame() {
+            cancelFrame();
+            if (mSurface == null || !mRendering || mRenderer.getSize() == 0) {
+                return;
+            }
+            long now = mTimeSource.currentTimeMillis();
+            ClockView.TickMode tickMode = getEffectiveTickMode();
+            long shownTime = tickMode == ClockView.TickMode.SWEEP ? now : now - now % 1000;
+
+            Canvas canvas = lockCanvas();
+            if (canvas == null) {
+                return;
+            }
+            try {
+                canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+                int size = mRenderer.getSize();
+                canvas.translate(mWidth / 2 - size / 2, mHeight / 2 - size / 2);
+                mRenderer.draw(canvas, shownTime);
+            } finally {
+                mSurface.unlockCanvasAndPost(canvas);
+            }
+            scheduleFrame(now, tickMode);
+        }
+
+        private Canvas lockCanvas() {
+            try {
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                    return mSurface.lockHardwareCanvas();
+                }
+                return mSurface.lockCanvas(null);
+            } catch (IllegalArgumentException | Surface.OutOfResourcesException e) {
+                // The surface is being torn down; the next surface callback starts over.
+                return null;
+            }
+        }
+
+        private ClockView.TickMode getEffectiveTickMode() {
+            return ClockViewHelper.getEffectiveTickMode(mTickMode, mRenderer.getStyle());
+        }
+
+        /**
+         * Waits until the next step is due, then for the vsync after that. A sweep capped below
+         * the refresh rate therefore skips whole vsync periods instead of waking up on every one.
+         */
+        private void scheduleFrame(long now, ClockView.TickMode tickMode) {
+            long delay = ClockViewHelper.getTickDelay(tickMode, now, mSweepFrameRate);
+            if (tickMode == ClockView.TickMode.SWEEP) {
+                delay = Math.max(0, delay - mVsyncMillis);
+            }
+            if (mVsyncScheduler != null) {
+                mVsyncScheduler.schedule(delay);
+            } else {
+                mHandler.sendEmptyMessageDelayed(MSG_DRAW_FRAME, delay);
+            }
+        }
+
+        private void cancelFrame() {
+            if (mVsyncScheduler != null) {
+                mVsyncScheduler.cancel();
+            } else {
+                mHandler.removeMessages(MSG_DRAW_FRAME);
+            }
+        }
+    }
+}
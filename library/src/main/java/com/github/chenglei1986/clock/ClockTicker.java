@@ -0,0 +1,204 @@
+package com.github.chenglei1986.clock;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * The one timer all running {@link ClockView}s tick from. Each clock keeps its own next tick
+ * time; the ticker wakes up once for the earliest of them, reads the wall clock once and hands
+ * that instant to every clock that is due, so clocks that step together, e.g. on the second,
+ * share one wake-up and their redraws land in the same frame.
+ * <p>
+ * Ticks due within a frame are taken on the next vsync with a {@link Choreographer} on API 16+,
+ * so sweeping clocks step in lockstep with the display; later ones wait on a plain timer.
+ * <p>
+ * The ticker also owns the one receiver for screen and system time changes, registered while any
+ * clock is attached to a window, and tells the attached clocks about them. Must only be used on
+ * the main thread.
+ */
+final class ClockTicker {
+
+    /**
+     * A sweep step due just after a vsync is taken on it rather than a whole frame later. Steps
+     * aligned to a second or minute boundary never are, so they never show the next step early.
+     */
+    private static final long TICK_SLOP_MILLIS = 4;
+
+    private static ClockTicker sInstance;
+
+    /**
+     * Told about screen and system time changes.
+     */
+    interface SystemListener {
+        void onScreenStateChanged(boolean screenOn);
+
+        void onSystemTimeChanged();
+    }
+
+    private final ArrayList<ClockView> mClocks = new ArrayList<ClockView>();
+    private final ArrayList<SystemListener> mListeners = new ArrayList<SystemListener>();
+    private Context mReceiverContext;
+    private boolean mScreenOn = true;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final VsyncScheduler mVsyncScheduler;
+    private long mFrameMillis;
+    private boolean mDispatching;
+
+    private final Runnable mTickRunnable = new Runnable() {
+        @Override
+        public void run() {
+            dispatch();
+        }
+    };
+
+    private final BroadcastReceiver mSystemReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            String action = intent.getAction();
+            boolean timeChanged = Intent.ACTION_TIMEZONE_CHANGED.equals(action) || Intent.ACTION_TIME_CHANGED.equals(action);
+            if (!timeChanged) {
+                mScreenOn = Intent.ACTION_SCREEN_ON.equals(action);
+            }
+            // Listeners may come and go while being told.
+            SystemListener[] listeners = mListeners.toArray(new SystemListener[mListeners.size()]);
+            for (SystemListener listener : listeners) {
+                if (timeChanged) {
+                    listener.onSystemTimeChanged();
+                } else {
+                    listener.onScreenStateChanged(mScreenOn);
+                }
+            }
+        }
+    };
+
+    private ClockTicker() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            mVsyncScheduler = new VsyncScheduler(mTickRunnable);
+        } else {
+            mVsyncScheduler = null;
+        }
+    }
+
+    static ClockTicker getInstance() {
+        if (sInstance == null) {
+            sInstance = new ClockTicker();
+        }
+        return sInstance;
+    }
+
+    /**
+     * Adds a listener for screen and system time changes, registering the receiver for the first
+     * one. Afterwards {@link #isScreenOn()} is up to date.
+     */
+    void addSystemListener(Context context, SystemListener listener) {
+        if (mListeners.contains(listener)) {
+            return;
+        }
+        mListeners.add(listener);
+        if (mListeners.size() == 1) {
+            mReceiverContext = context.getApplicationContext();
+            IntentFilter filter = new IntentFilter();
+            filter.addAction(Intent.ACTION_SCREEN_ON);
+            filter.addAction(Intent.ACTION_SCREEN_OFF);
+            filter.addAction(Intent.ACTION_TIME_CHANGED);
+            filter.addAction(Intent.ACTION_TIMEZONE_CHANGED);
+            mReceiverContext.registerReceiver(mSystemReceiver, filter);
+            mScreenOn = readScreenOn(mReceiverContext);
+        }
+    }
+
+    /**
+     * Removes a listener, unregistering the receiver with the last one.
+     */
+    void removeSystemListener(SystemListener listener) {
+        if (mListeners.remove(listener) && mListeners.isEmpty()) {
+            mReceiverContext.unregisterReceiver(mSystemReceiver);
+            mReceiverContext = null;
+        }
+    }
+
+    /**
+     * @return whether the screen is on, as of the last broadcast; only tracked while there are
+     * listeners
+     */
+    boolean isScreenOn() {
+        return mScreenOn;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static boolean readScreenOn(Context context) {
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT_WATCH) {
+            return powerManager.isInteractive();
+        }
+        return powerManager.isScreenOn();
+    }
+
+    void register(ClockView clock) {
+        if (mClocks.isEmpty()) {
+            mFrameMillis = (long) (1000 / ClockViewHelper.getRefreshRate(clock.getContext()));
+        }
+        if (!mClocks.contains(clock)) {
+            mClocks.add(clock);
+        }
+        reschedule();
+    }
+
+    void unregister(ClockView clock) {
+        mClocks.remove(clock);
+        reschedule();
+    }
+
+    /**
+     * Wakes up for the earliest next tick of all clocks. Called whenever one of them changes.
+     */
+    void reschedule() {
+        if (mDispatching) {
+            return;
+        }
+        mHandler.removeCallbacks(mTickRunnable);
+        if (mVsyncScheduler != null) {
+            mVsyncScheduler.cancel();
+        }
+        if (mClocks.isEmpty()) {
+            return;
+        }
+        long nextTick = Long.MAX_VALUE;
+        for (int i = 0; i < mClocks.size(); i++) {
+            nextTick = Math.min(nextTick, mClocks.get(i).getNextTickUptime());
+        }
+        if (mVsyncScheduler != null && nextTick - SystemClock.uptimeMillis() <= mFrameMillis) {
+            mVsyncScheduler.schedule(0);
+        } else {
+            mHandler.postAtTime(mTickRunnable, nextTick);
+        }
+    }
+
+    private void dispatch() {
+        long uptime = SystemClock.uptimeMillis();
+        long now = System.currentTimeMillis();
+        mDispatching = true;
+        try {
+            for (int i = 0; i < mClocks.size(); i++) {
+                ClockView clock = mClocks.get(i);
+                long slop = clock.isNextTickSweep() ? TICK_SLOP_MILLIS : 0;
+                if (clock.getNextTickUptime() <= uptime + slop) {
+                    clock.onTick(now);
+                }
+            }
+        } finally {
+            mDispatching = false;
+        }
+        reschedule();
+    }
+}
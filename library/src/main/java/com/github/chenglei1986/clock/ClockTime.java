@@ -0,0 +1,68 @@
+package com.github.chenglei1986.clock;
+
+import java.util.TimeZone;
+
+/**
+ * Splits an instant into the fields shown by the hands using plain arithmetic. Zone offsets only
+ * change on whole minutes, so the offset is cached for the minute of the last instant and only
+ * looked up again once an instant falls outside of it, or after {@link #invalidateOffset()}.
+ */
+final class ClockTime {
+
+    private static final long SECOND = 1000;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    int hour;
+    int minute;
+    int second;
+    int milliSecond;
+
+    private TimeZone mTimeZone = TimeZone.getDefault();
+    private int mOffset;
+    private long mOffsetValidFrom = Long.MAX_VALUE;
+    private long mOffsetValidUntil = Long.MIN_VALUE;
+
+    void setTimeZone(TimeZone timeZone) {
+        mTimeZone = timeZone;
+        invalidateOffset();
+    }
+
+    void invalidateOffset() {
+        mOffsetValidFrom = Long.MAX_VALUE;
+        mOffsetValidUntil = Long.MIN_VALUE;
+    }
+
+    /**
+     * @param utcMillis milliseconds since the epoch, UTC
+     */
+    void set(long utcMillis) {
+        if (utcMillis < mOffsetValidFrom || utcMillis >= mOffsetValidUntil) {
+            updateOffset(utcMillis);
+        }
+        long millisOfDay = (utcMillis + mOffset) % DAY;
+        if (millisOfDay < 0) {
+            millisOfDay += DAY;
+        }
+        int millis = (int) millisOfDay;
+        hour = (int) (millis / HOUR) % 12;
+        minute = (int) (millis / MINUTE % 60);
+        second = (int) (millis / SECOND % 60);
+        milliSecond = (int) (millis % SECOND);
+    }
+
+    /**
+     * One lookup per minute is far below the cost of drawing a frame, and unlike searching for
+     * the next transition it costs the same in every zone.
+     */
+    private void updateOffset(long utcMillis) {
+        mOffset = mTimeZone.getOffset(utcMillis);
+        long millisOfMinute = utcMillis % MINUTE;
+        if (millisOfMinute < 0) {
+            millisOfMinute += MINUTE;
+        }
+        mOffsetValidFrom = utcMillis - millisOfMinute;
+        mOffsetValidUntil = mOffsetValidFrom + MINUTE;
+    }
+}
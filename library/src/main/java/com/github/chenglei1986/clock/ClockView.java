@@ -1,116 +1,152 @@
 package com.github.chenglei1986.clock;
 
 import android.animation.Animator;
-import android.animation.AnimatorSet;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.TimeInterpolator;
 import android.animation.ValueAnimator;
 import android.content.Context;
-import android.content.res.Resources;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
 import android.graphics.Rect;
-import android.text.TextPaint;
+import android.graphics.RectF;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.util.Log;
-import android.util.TypedValue;
 import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.AnimationUtils;
 
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.HashMap;
 import java.util.TimeZone;
 
-public class ClockView extends View {
-
-    private static final float MIN_WIDTH_DP = 50;
-    private static final float MIN_HEIGHT_DP = 50;
-
-    private static final int DEFAULT_CLOCK_FACE_COLOR = Color.parseColor("#A9ADB0");
-    private static final int DEFAULT_OUTER_RIM_COLOR = Color.BLACK;
-    private static final int DEFAULT_INNER_RIM_COLOR = Color.BLACK;
-    private static final int DEFAULT_THICK_MARKER_COLOR = Color.BLACK;
-    private static final int DEFAULT_THIN_MARKER_COLOR = Color.BLACK;
-    private static final int DEFAULT_NUMBER_TEXT_COLOR = Color.BLACK;
-    private static final int DEFAULT_HOUR_HAND_COLOR = Color.BLACK;
-    private static final int DEFAULT_MINUTE_HAND_COLOR = Color.BLACK;
-    private static final int DEFAULT_SWEEP_HAND_COLOR = Color.BLACK;
-    private static final int DEFAULT_CENTER_CIRCLE_COLOR = Color.BLACK;
+public class ClockView extends ViewGroup {
+
     private static final int DEFAULT_ANIMATION_DURATION_MILLI = 1200;
     private static final int DEFAULT_ANIM_START_DELAY_MILLI = 500;
-
-    private static final float DEFAULT_OUTER_RIM_WIDTH = dipToPx(1);
-    private static final float DEFAULT_INNER_RIM_WIDTH = dipToPx(1);
-    private static final float DEFAULT_THICK_MARKER_WIDTH = dipToPx(3);
-    private static final float DEFAULT_THICK_MARKER_LENGTH = dipToPx(20);
-    private static final float DEFAULT_THIN_MARKER_WIDTH = dipToPx(1);
-    private static final float DEFAULT_THIN_MARKER_LENGTH = dipToPx(10);
-    private static final float DEFAULT_NUMBER_TEXT_SIZE = dipToPx(18);
-    private static final float DEFAULT_HOUR_HAND_WIDTH = dipToPx(5);
-    private static final float DEFAULT_MINUTE_HAND_WIDTH = dipToPx(3);
-    private static final float DEFAULT_SWEEP_HAND_WIDTH = dipToPx(1);
-    private static final float DEFAULT_CENTER_CIRCLE_RADIUS = dipToPx(5);
-
-    private int mClockFaceColor;
-    private int mOuterRimColor;
-    private int mInnerRimColor;
-    private int mThickMarkerColor;
-    private int mThinMarkerColor;
-    private int mNumberTextColor;
-    private int mHourHandColor;
-    private int mMinuteHandColor;
-    private int mSweepHandColor;
-    private int mCenterCircleColor;
-
-    private float mOuterRimWidth;
-    private float mInnerRimWidth;
-    private float mThickMarkerWidth;
-    private float mThinMarkerWidth;
-    private float mNumberTextSize;
-    private float mHourHandWidth;
-    private float mMinuteHandWidth;
-    private float mSweepHandWidth;
-    private float mCenterCircleRadius;
-
-    private boolean mShowThickMarkers = true;
-    private boolean mShowThinMarkers = true;
-    private boolean mShowNumbers = true;
-    private boolean mShowSweepHand = true;
-    private boolean mAnimationPlayed = true;
-    private boolean mAnimation = true;
-
-    private NumberType mNumberType;
-
-    private int mMinWidth = (int) dipToPx(MIN_WIDTH_DP);
-    private int mMinHeight = (int) dipToPx(MIN_HEIGHT_DP);
+    private static final float TWO_PI = (float) (2 * Math.PI);
+
+    private static final float MIN_HAND_MOVEMENT = 0.25f;
+    private static final long TENTHS_STEP_MILLIS = 100;
+    private static final float BURN_IN_SHIFT_DP = 3;
+
+    private static final int HAND_COUNT = ClockRenderer.HAND_COUNT;
+    private static final int SUB_DIAL_COUNT = ClockRenderer.SUB_DIAL_COUNT;
+
+    private ClockStyle mStyle;
+    private ClockRenderer mRenderer;
+
+    private boolean mIntroPending;
+    private boolean mIntroOnFirstVisible;
+    private boolean mIntroWaitingForVisible;
+    private final Rect mVisibleRect = new Rect();
+    private long mAnimationDuration;
+    private long mAnimationStartDelay;
+    private int mAnimationInterpolatorId;
+    private TimeInterpolator mAnimationInterpolator;
+    private boolean mAmbient;
+    private boolean mBurnInProtection;
+    private int mBurnInShift = -1;
+    private int mBurnInOffsetX;
+    private int mBurnInOffsetY;
+    private long mBurnInMinute;
+
+    private TickMode mTickMode;
+    private int mSweepFrameRate;
 
     private Rect mPaintRect = new Rect();
-    private int mRefreshRectLeft, mRefreshRectTop, mRefreshRectRight, mRefreshRectBottom;
+    private final Rect mDirtyRect = new Rect();
+    private final RectF mHandBounds = new RectF();
     private float mHour, mMinute, mSecond;
     private int mMilliSecond;
+    private final float[] mHandAngles = new float[HAND_COUNT];
+    private final float[] mSubDialAngles = new float[SUB_DIAL_COUNT];
+    private boolean mHandsValid;
 
-    private Paint mColckFacePaint = new Paint();
-    private Paint mOuterRimPaint = new Paint();
-    private Paint mInnerRimPaint = new Paint();
-    private Paint mThickMarkerPaint = new Paint();
-    private Paint mThinMarkerPaint = new Paint();
-    private TextPaint mNumberPaint = new TextPaint();
-    private Paint mHourHandPaint = new Paint();
-    private Paint mMinuteHandPaint = new Paint();
-    private Paint mSweepHandPaint = new Paint();
-    private Paint mCenterCirclePaint = new Paint();
+    private HandLayerView[] mHandLayerViews;
+    private boolean mHandLayerMoved;
 
     private TimeZone mTimeZone;
     private String mTimeZoneId;
 
-    private Calendar mCalendar;
-
-    private enum NumberType {
-        ARABIC, ROMAN
+    private TimeSource mTimeSource = TimeSource.SYSTEM;
+    private long mTimeOffset;
+    private final ClockTime mClockTime = new ClockTime();
+    private Chronograph mChronograph;
+    private long mElapsedMillis;
+
+    private ValueAnimator mHandAnimator;
+    private boolean mHandAnimationCanceled;
+    private final float[] mAnimationStartAngles = new float[HAND_COUNT];
+    private final float[] mAnimationDeltas = new float[HAND_COUNT];
+
+    private boolean mAttached;
+    private boolean mWindowVisible;
+    private boolean mScreenOn = true;
+    private boolean mTicking;
+    private long mNextTickUptime;
+    private boolean mNextTickSweep;
+    private boolean mHandlingTick;
+    private long mTickTimeMillis;
+
+    private ClockFrameStats mFrameStats;
+    private long mFrameBudgetNanos;
+
+    /**
+     * How often the hands are redrawn. When the sweep hand is hidden a wall clock always falls
+     * back to {@link #MINUTE}, since nothing else changes more than once a minute.
+     * <p>
+     * A running {@link Chronograph} picks the rate from what it shows: it sweeps with its sweep
+     * hand, steps every tenth of a second with only the sub-dials, and steps once a second with
+     * neither or in ambient mode. A stopped one falls back to {@link #MINUTE}.
+     */
+    public enum TickMode {
+        /** Continuous sweep, redrawn at most {@link #getSweepFrameRate()} times per second. */
+        SWEEP,
+        /** One step per second, aligned to the wall-clock second boundary. */
+        QUARTZ,
+        /** One step per minute, aligned to the wall-clock minute boundary. */
+        MINUTE
     }
 
+    private final Chronograph.Callback mChronographCallback = new Chronograph.Callback() {
+        @Override
+        public void onChronographStateChanged() {
+            if (mTicking) {
+                scheduleNextTick();
+            }
+            snapToCurrentTime();
+        }
+    };
+
+    private final ViewTreeObserver.OnPreDrawListener mIntroPreDrawListener = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            if (getGlobalVisibleRect(mVisibleRect)) {
+                mIntroPending = false;
+                updateIntro();
+                startIntroAnimation();
+            }
+            return true;
+        }
+    };
+
+    private final ClockTicker.SystemListener mSystemListener = new ClockTicker.SystemListener() {
+        @Override
+        public void onScreenStateChanged(boolean screenOn) {
+            mScreenOn = screenOn;
+            updateTicking();
+        }
+
+        @Override
+        public void onSystemTimeChanged() {
+            ClockView.this.onSystemTimeChanged();
+        }
+    };
+
     public ClockView(Context context) {
         this(context, null);
     }
@@ -124,360 +160,1120 @@ public class ClockView extends View {
         init(context, attrs);
     }
 
+    /**
+     * Only parses the attributes. Paints and layout are resolved on the first measure, the
+     * interpolator when the first animation starts, and nothing runs until the clock is
+     * attached and visible, so inflating a long list of clocks stays cheap.
+     */
     private void initAttributes(Context context, AttributeSet attrs) {
         TypedArray attr = context.obtainStyledAttributes(attrs, R.styleable.ClockView);
-        mClockFaceColor = attr.getColor(R.styleable.ClockView_clockFaceColor, DEFAULT_CLOCK_FACE_COLOR);
-        mOuterRimColor = attr.getColor(R.styleable.ClockView_outerRimColor, DEFAULT_OUTER_RIM_COLOR);
-        mInnerRimColor = attr.getColor(R.styleable.ClockView_innerRimColor, DEFAULT_INNER_RIM_COLOR);
-        mThickMarkerColor = attr.getColor(R.styleable.ClockView_thickMarkerColor, DEFAULT_THICK_MARKER_COLOR);
-        mThinMarkerColor = attr.getColor(R.styleable.ClockView_thinMarkerColor, DEFAULT_THIN_MARKER_COLOR);
-        mNumberTextColor = attr.getColor(R.styleable.ClockView_numberTextColor, DEFAULT_NUMBER_TEXT_COLOR);
-        mHourHandColor = attr.getColor(R.styleable.ClockView_hourHandColor, DEFAULT_HOUR_HAND_COLOR);
-        mMinuteHandColor = attr.getColor(R.styleable.ClockView_minuteHandColor, DEFAULT_MINUTE_HAND_COLOR);
-        mSweepHandColor = attr.getColor(R.styleable.ClockView_sweepHandColor, DEFAULT_SWEEP_HAND_COLOR);
-        mCenterCircleColor = attr.getColor(R.styleable.ClockView_centerCircleColor, DEFAULT_CENTER_CIRCLE_COLOR);
-
-        mOuterRimWidth = attr.getDimension(R.styleable.ClockView_outerRimWidth, DEFAULT_OUTER_RIM_WIDTH);
-        mInnerRimWidth = attr.getDimension(R.styleable.ClockView_innerRimWidth, DEFAULT_INNER_RIM_WIDTH);
-        mThickMarkerWidth = attr.getDimension(R.styleable.ClockView_thickMarkerWidth, DEFAULT_THICK_MARKER_WIDTH);
-        mThinMarkerWidth = attr.getDimension(R.styleable.ClockView_thinMarkerWidth, DEFAULT_THIN_MARKER_WIDTH);
-        mNumberTextSize = attr.getDimension(R.styleable.ClockView_numberTextSize, DEFAULT_NUMBER_TEXT_SIZE);
-        mHourHandWidth = attr.getDimension(R.styleable.ClockView_hourHandWidth, DEFAULT_HOUR_HAND_WIDTH);
-        mMinuteHandWidth = attr.getDimension(R.styleable.ClockView_minuteHandWidth, DEFAULT_MINUTE_HAND_WIDTH);
-        mSweepHandWidth = attr.getDimension(R.styleable.ClockView_sweepHandWidth, DEFAULT_SWEEP_HAND_WIDTH);
-        mCenterCircleRadius = attr.getDimension(R.styleable.ClockView_centerCircleRadius, DEFAULT_CENTER_CIRCLE_RADIUS);
-
-        mShowThickMarkers = attr.getBoolean(R.styleable.ClockView_showThickMarkers, mShowThickMarkers);
-        mShowThinMarkers = attr.getBoolean(R.styleable.ClockView_showThinMarkers, mShowThinMarkers);
-        mShowNumbers = attr.getBoolean(R.styleable.ClockView_showNumbers, mShowNumbers);
-        mShowSweepHand = attr.getBoolean(R.styleable.ClockView_showSweepHand, mShowSweepHand);
-        mAnimation = attr.getBoolean(R.styleable.ClockView_animation, mAnimation);
+        mStyle = ClockStyle.fromAttributes(context, attr);
+        mAmbient = attr.getBoolean(R.styleable.ClockView_ambient, mAmbient);
+        mBurnInProtection = attr.getBoolean(R.styleable.ClockView_burnInProtection, mBurnInProtection);
+        mRenderer = new ClockRenderer(mAmbient ? mStyle.getAmbientStyle() : mStyle, true);
+
+        mIntroPending = attr.getBoolean(R.styleable.ClockView_animation, true);
+        mIntroOnFirstVisible = attr.getBoolean(R.styleable.ClockView_introOnFirstVisible, false);
+        mAnimationDuration = attr.getInt(R.styleable.ClockView_animationDuration, DEFAULT_ANIMATION_DURATION_MILLI);
+        mAnimationStartDelay = attr.getInt(R.styleable.ClockView_animationStartDelay, DEFAULT_ANIM_START_DELAY_MILLI);
+        mAnimationInterpolatorId = attr.getResourceId(R.styleable.ClockView_animationInterpolator, 0);
+        boolean handLayersEnabled = attr.getBoolean(R.styleable.ClockView_handLayers, false);
 
         mTimeZoneId = attr.getString(R.styleable.ClockView_timeZoneId);
-        mNumberType = NumberType.values()[attr.getInt(R.styleable.ClockView_numberType, 0)];
-
-        if (!TextUtils.isEmpty(mTimeZoneId)) {
-            mTimeZone = TimeZone.getTimeZone(mTimeZoneId);
-        } else {
-            mTimeZone = TimeZone.getDefault();
-        }
+        mTickMode = ClockViewHelper.readTickMode(attr);
+        mSweepFrameRate = ClockViewHelper.readSweepFrameRate(attr);
+        mTimeZone = ClockViewHelper.resolveTimeZone(mTimeZoneId);
+        mClockTime.setTimeZone(mTimeZone);
+        mRenderer.setTimeZone(mTimeZone);
         attr.recycle();
+        setHandLayersEnabled(handLayersEnabled);
     }
 
     private void init(Context context, AttributeSet attrs) {
+        setWillNotDraw(false);
         initAttributes(context, attrs);
-        initPaint();
-        if (mAnimation) {
-            initAnimation();
-        }
-    }
-
-    private void initPaint() {
-        mColckFacePaint.setAntiAlias(true);
-        mColckFacePaint.setColor(mClockFaceColor);
-        mColckFacePaint.setStyle(Paint.Style.FILL);
-
-        mOuterRimPaint.setAntiAlias(true);
-        mOuterRimPaint.setColor(mOuterRimColor);
-        mOuterRimPaint.setStyle(Paint.Style.STROKE);
-        mOuterRimPaint.setStrokeWidth(mOuterRimWidth);
-
-        mInnerRimPaint.setAntiAlias(true);
-        mInnerRimPaint.setColor(mInnerRimColor);
-        mInnerRimPaint.setStyle(Paint.Style.STROKE);
-        mInnerRimPaint.setStrokeWidth(mInnerRimWidth);
-
-        mThickMarkerPaint.setAntiAlias(true);
-        mThickMarkerPaint.setColor(mThickMarkerColor);
-        mThickMarkerPaint.setStyle(Paint.Style.STROKE);
-        mThickMarkerPaint.setStrokeWidth(mThickMarkerWidth);
-
-        mThinMarkerPaint.setAntiAlias(true);
-        mThinMarkerPaint.setColor(mThinMarkerColor);
-        mThinMarkerPaint.setStyle(Paint.Style.STROKE);
-        mThinMarkerPaint.setStrokeWidth(mThinMarkerWidth);
-
-        mNumberPaint.setAntiAlias(true);
-        mNumberPaint.setColor(mNumberTextColor);
-        mNumberPaint.setTextSize(mNumberTextSize);
-        mNumberPaint.setTextAlign(Paint.Align.CENTER);
-
-        mHourHandPaint.setAntiAlias(true);
-        mHourHandPaint.setColor(mHourHandColor);
-        mHourHandPaint.setStyle(Paint.Style.STROKE);
-        mHourHandPaint.setStrokeWidth(mHourHandWidth);
-
-        mMinuteHandPaint.setAntiAlias(true);
-        mMinuteHandPaint.setColor(mMinuteHandColor);
-        mMinuteHandPaint.setStyle(Paint.Style.STROKE);
-        mMinuteHandPaint.setStrokeWidth(mMinuteHandWidth);
-
-        mSweepHandPaint.setAntiAlias(true);
-        mSweepHandPaint.setColor(mSweepHandColor);
-        mSweepHandPaint.setStyle(Paint.Style.STROKE);
-        mSweepHandPaint.setStrokeWidth(mSweepHandWidth);
-
-        mCenterCirclePaint.setAntiAlias(true);
-        mCenterCirclePaint.setColor(mCenterCircleColor);
-        mCenterCirclePaint.setStyle(Paint.Style.FILL);
-    }
-
-    private void initAnimation() {
-        mCalendar = Calendar.getInstance(mTimeZone);
-        float hour = mCalendar.get(Calendar.HOUR);
-        float minute = mCalendar.get(Calendar.MINUTE);
-        float second = mCalendar.get(Calendar.SECOND) + (DEFAULT_ANIMATION_DURATION_MILLI + DEFAULT_ANIM_START_DELAY_MILLI) / 1000.0f;
-        int milliSecond = (int) (1000 * second + mCalendar.get(Calendar.MILLISECOND));
-        ValueAnimator hourAnimator = ValueAnimator.ofFloat(0, hour);
-        ValueAnimator minuteAnimator = ValueAnimator.ofFloat(0, minute);
-        ValueAnimator secondAnimator = ValueAnimator.ofFloat(0, second);
-        ValueAnimator milliSecondAnimator = ValueAnimator.ofInt(0, milliSecond);
-
-        hourAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mHour = (float) animation.getAnimatedValue();
-            }
-        });
-        minuteAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mMinute = (float) animation.getAnimatedValue();
-            }
-        });
-        secondAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mSecond = (float) animation.getAnimatedValue();
+    }
+
+    /**
+     * @return the interactive look of this clock, e.g. to render matching images with a
+     * {@link ClockRenderer}
+     */
+    public ClockStyle getStyle() {
+        return mStyle;
+    }
+
+    /**
+     * Changes the look of this clock. Styles are immutable, so one instance can be shared by any
+     * number of clocks, which then also share their paints and rendered faces. Only what the
+     * change affects is rebuilt: the static face if the face looks different, the hand layers
+     * if the hands do.
+     */
+    public void setStyle(ClockStyle style) {
+        if (style == null) {
+            throw new IllegalArgumentException("style must not be null");
+        }
+        if (style.equals(mStyle)) {
+            return;
+        }
+        mStyle = style;
+        ClockStyle oldStyle = mRenderer.getStyle();
+        ClockStyle newStyle = mAmbient ? style.getAmbientStyle() : style;
+        mRenderer.setStyle(newStyle);
+        if (!oldStyle.hasSameHands(newStyle) || oldStyle.getNumberTextSize() != newStyle.getNumberTextSize()) {
+            invalidateHandLayers();
+        }
+        if (oldStyle.isShowSweepHand() != newStyle.isShowSweepHand()) {
+            if (mTicking) {
+                scheduleNextTick();
             }
-        });
-        milliSecondAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mMilliSecond = (int) animation.getAnimatedValue();
+            snapToCurrentTime();
+        } else {
+            invalidate();
+        }
+    }
+
+    public void setClockFaceColor(int color) {
+        setStyle(mStyle.buildUpon().setClockFaceColor(color).build());
+    }
+
+    public void setOuterRimColor(int color) {
+        setStyle(mStyle.buildUpon().setOuterRimColor(color).build());
+    }
+
+    public void setInnerRimColor(int color) {
+        setStyle(mStyle.buildUpon().setInnerRimColor(color).build());
+    }
+
+    public void setThickMarkerColor(int color) {
+        setStyle(mStyle.buildUpon().setThickMarkerColor(color).build());
+    }
+
+    public void setThinMarkerColor(int color) {
+        setStyle(mStyle.buildUpon().setThinMarkerColor(color).build());
+    }
+
+    public void setNumberTextColor(int color) {
+        setStyle(mStyle.buildUpon().setNumberTextColor(color).build());
+    }
+
+    public void setHourHandColor(int color) {
+        setStyle(mStyle.buildUpon().setHourHandColor(color).build());
+    }
+
+    public void setMinuteHandColor(int color) {
+        setStyle(mStyle.buildUpon().setMinuteHandColor(color).build());
+    }
+
+    public void setSweepHandColor(int color) {
+        setStyle(mStyle.buildUpon().setSweepHandColor(color).build());
+    }
+
+    public void setCenterCircleColor(int color) {
+        setStyle(mStyle.buildUpon().setCenterCircleColor(color).build());
+    }
+
+    public void setOuterRimWidth(float width) {
+        setStyle(mStyle.buildUpon().setOuterRimWidth(width).build());
+    }
+
+    public void setInnerRimWidth(float width) {
+        setStyle(mStyle.buildUpon().setInnerRimWidth(width).build());
+    }
+
+    public void setThickMarkerWidth(float width) {
+        setStyle(mStyle.buildUpon().setThickMarkerWidth(width).build());
+    }
+
+    public void setThinMarkerWidth(float width) {
+        setStyle(mStyle.buildUpon().setThinMarkerWidth(width).build());
+    }
+
+    public void setNumberTextSize(float size) {
+        setStyle(mStyle.buildUpon().setNumberTextSize(size).build());
+    }
+
+    public void setHourHandWidth(float width) {
+        setStyle(mStyle.buildUpon().setHourHandWidth(width).build());
+    }
+
+    public void setMinuteHandWidth(float width) {
+        setStyle(mStyle.buildUpon().setMinuteHandWidth(width).build());
+    }
+
+    public void setSweepHandWidth(float width) {
+        setStyle(mStyle.buildUpon().setSweepHandWidth(width).build());
+    }
+
+    public void setCenterCircleRadius(float radius) {
+        setStyle(mStyle.buildUpon().setCenterCircleRadius(radius).build());
+    }
+
+    public void setShowThickMarkers(boolean show) {
+        setStyle(mStyle.buildUpon().setShowThickMarkers(show).build());
+    }
+
+    public void setShowThinMarkers(boolean show) {
+        setStyle(mStyle.buildUpon().setShowThinMarkers(show).build());
+    }
+
+    public void setShowNumbers(boolean show) {
+        setStyle(mStyle.buildUpon().setShowNumbers(show).build());
+    }
+
+    public void setShowSweepHand(boolean show) {
+        setStyle(mStyle.buildUpon().setShowSweepHand(show).build());
+    }
+
+    public void setShowSubDials(boolean show) {
+        setStyle(mStyle.buildUpon().setShowSubDials(show).build());
+    }
+
+    public void setSkin(ClockSkin skin) {
+        setStyle(mStyle.buildUpon().setSkin(skin).build());
+    }
+
+    public void setNumberType(ClockStyle.NumberType numberType) {
+        setStyle(mStyle.buildUpon().setNumberType(numberType).build());
+    }
+
+    public boolean isAmbient() {
+        return mAmbient;
+    }
+
+    /**
+     * Switches between the interactive style and its {@link ClockStyle#getAmbientStyle() ambient
+     * variant} for always-on screens. In ambient mode the clock is only redrawn once a minute,
+     * aligned to the minute boundary, or once a second while a {@link Chronograph} runs.
+     */
+    public void setAmbient(boolean ambient) {
+        if (mAmbient != ambient) {
+            mAmbient = ambient;
+            mRenderer.setStyle(ambient ? mStyle.getAmbientStyle() : mStyle);
+            onModeChanged();
+        }
+    }
+
+    public boolean isBurnInProtection() {
+        return mBurnInProtection;
+    }
+
+    /**
+     * When enabled, the clock is drawn slightly smaller in ambient mode and shifted by a few
+     * pixels every minute, so that no pixel stays lit for long.
+     */
+    public void setBurnInProtection(boolean burnInProtection) {
+        if (mBurnInProtection != burnInProtection) {
+            mBurnInProtection = burnInProtection;
+            onModeChanged();
+        }
+    }
+
+    private boolean isBurnInShiftActive() {
+        return mAmbient && mBurnInProtection;
+    }
+
+    private void onModeChanged() {
+        mBurnInOffsetX = 0;
+        mBurnInOffsetY = 0;
+        if (!mPaintRect.isEmpty()) {
+            layoutRenderer();
+        }
+        invalidateHandLayers();
+        if (mTicking) {
+            scheduleNextTick();
+        }
+        snapToCurrentTime();
+    }
+
+    public TimeSource getTimeSource() {
+        return mTimeSource;
+    }
+
+    /**
+     * Replaces the wall clock the hands are read from, e.g. with a fake clock in tests. Also
+     * undoes {@link #animateTo(long)}.
+     */
+    public void setTimeSource(TimeSource timeSource) {
+        if (timeSource == null) {
+            throw new IllegalArgumentException("timeSource must not be null");
+        }
+        mTimeSource = timeSource;
+        mTimeOffset = 0;
+        if (mTicking) {
+            scheduleNextTick();
+        }
+        snapToCurrentTime();
+    }
+
+    public Chronograph getChronograph() {
+        return mChronograph;
+    }
+
+    /**
+     * Turns the clock into a stopwatch: while a chronograph is set, the hands show its elapsed
+     * time instead of the wall clock, and the {@link ClockStyle#isShowSubDials() sub-dials}
+     * show its minutes and tenths of a second. A chronograph drives one clock at a time.
+     * Passing {@code null} returns the clock to the wall clock.
+     */
+    public void setChronograph(Chronograph chronograph) {
+        if (mChronograph == chronograph) {
+            return;
+        }
+        if (mChronograph != null) {
+            mChronograph.clearCallback(mChronographCallback);
+        }
+        mChronograph = chronograph;
+        if (chronograph != null) {
+            chronograph.setCallback(mChronographCallback);
+        }
+        if (mHandAnimator != null) {
+            mHandAnimator.cancel();
+        }
+        if (mTicking) {
+            scheduleNextTick();
+        }
+        snapToCurrentTime();
+    }
+
+    public TimeZone getTimeZone() {
+        return mTimeZone;
+    }
+
+    /**
+     * Shows the time in the given zone from now on, gliding the hands there if the clock is
+     * running. Passing {@code null} makes the clock follow the system default time zone again.
+     */
+    public void setTimeZone(TimeZone timeZone) {
+        mTimeZoneId = timeZone != null ? timeZone.getID() : null;
+        mTimeZone = timeZone != null ? timeZone : TimeZone.getDefault();
+        mClockTime.setTimeZone(mTimeZone);
+        mRenderer.setTimeZone(mTimeZone);
+        glideToCurrentTime();
+    }
+
+    /**
+     * Sets the clock to the given instant, gliding the hands there if the clock is running. The
+     * clock then keeps running from that instant; passing the current time of the
+     * {@link #getTimeSource() time source} returns it to real time.
+     *
+     * @param utcMillis milliseconds since the epoch, UTC
+     */
+    public void animateTo(long utcMillis) {
+        mTimeOffset = utcMillis - mTimeSource.currentTimeMillis();
+        if (mTicking) {
+            scheduleNextTick();
+        }
+        glideToCurrentTime();
+    }
+
+    public long getAnimationDuration() {
+        return mAnimationDuration;
+    }
+
+    /**
+     * Sets how long the intro animation and {@link #animateTo(long)} glides take.
+     */
+    public void setAnimationDuration(long durationMillis) {
+        if (durationMillis < 0) {
+            throw new IllegalArgumentException("durationMillis must not be negative");
+        }
+        mAnimationDuration = durationMillis;
+    }
+
+    public long getAnimationStartDelay() {
+        return mAnimationStartDelay;
+    }
+
+    /**
+     * Sets how long the intro animation waits after the clock first becomes visible.
+     */
+    public void setAnimationStartDelay(long delayMillis) {
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("delayMillis must not be negative");
+        }
+        mAnimationStartDelay = delayMillis;
+    }
+
+    public boolean isIntroOnFirstVisible() {
+        return mIntroOnFirstVisible;
+    }
+
+    /**
+     * By default the intro animation plays as soon as the clock runs, i.e. it is attached, shown
+     * and the screen is on, even if it is scrolled out of sight. When enabled, the intro waits
+     * until part of the clock is actually on screen, e.g. for clocks further down a list.
+     */
+    public void setIntroOnFirstVisible(boolean introOnFirstVisible) {
+        mIntroOnFirstVisible = introOnFirstVisible;
+        updateIntro();
+    }
+
+    public TimeInterpolator getAnimationInterpolator() {
+        if (mAnimationInterpolator == null) {
+            if (mAnimationInterpolatorId != 0) {
+                mAnimationInterpolator = AnimationUtils.loadInterpolator(getContext(), mAnimationInterpolatorId);
+            } else {
+                mAnimationInterpolator = new AccelerateDecelerateInterpolator();
             }
-        });
-
-        AnimatorSet set = new AnimatorSet();
-        set.playTogether(hourAnimator, minuteAnimator, secondAnimator, milliSecondAnimator);
-        set.setDuration(DEFAULT_ANIMATION_DURATION_MILLI);
-        set.setInterpolator(new AccelerateDecelerateInterpolator());
-        set.addListener(new AnimatorSet.AnimatorListener() {
-
-            @Override
-            public void onAnimationStart(Animator animation) {
-                mAnimationPlayed = false;
-                invalidate();
+        }
+        return mAnimationInterpolator;
+    }
+
+    public void setAnimationInterpolator(TimeInterpolator interpolator) {
+        if (interpolator == null) {
+            throw new IllegalArgumentException("interpolator must not be null");
+        }
+        mAnimationInterpolator = interpolator;
+    }
+
+    public boolean isHandLayersEnabled() {
+        return mHandLayerViews != null;
+    }
+
+    /**
+     * When enabled, each hand is a child view that records its drawing once and is turned with
+     * {@link View#setRotation(float)}. A tick then only updates a render property of the moving
+     * hands instead of recording the clock again. This pays off when the view is hardware
+     * accelerated; a software canvas redraws the rotated hands either way. Such ticks are counted
+     * in {@link ClockFrameStats#getHandLayerFrames()}.
+     */
+    public void setHandLayersEnabled(boolean enabled) {
+        if (enabled == isHandLayersEnabled()) {
+            return;
+        }
+        if (enabled) {
+            mHandLayerViews = new HandLayerView[HAND_COUNT];
+            for (int hand = 0; hand < HAND_COUNT; hand++) {
+                mHandLayerViews[hand] = new HandLayerView(getContext(), hand);
+                addView(mHandLayerViews[hand]);
             }
+            updateHandLayers();
+        } else {
+            removeAllViews();
+            mHandLayerViews = null;
+        }
+        invalidate();
+    }
+
+    public boolean isFrameStatsEnabled() {
+        return mFrameStats != null;
+    }
+
+    /**
+     * Starts or stops collecting {@link ClockFrameStats} for this clock. Collecting only costs
+     * two clock reads and a few counter updates per frame, and never allocates.
+     */
+    public void setFrameStatsEnabled(boolean enabled) {
+        if (enabled && mFrameStats == null) {
+            mFrameStats = new ClockFrameStats();
+        } else if (!enabled) {
+            mFrameStats = null;
+        }
+    }
+
+    /**
+     * Copies the frame statistics collected since they were enabled or last reset into
+     * {@code outStats}. Must be called on the UI thread.
+     *
+     * @return {@code outStats}, or {@code null} if frame statistics are not enabled
+     */
+    public ClockFrameStats getFrameStats(ClockFrameStats outStats) {
+        if (mFrameStats == null) {
+            return null;
+        }
+        outStats.set(mFrameStats);
+        return outStats;
+    }
+
+    public void resetFrameStats() {
+        if (mFrameStats != null) {
+            mFrameStats.reset();
+        }
+    }
 
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                mAnimationPlayed = true;
+    public TickMode getTickMode() {
+        return mTickMode;
+    }
+
+    public void setTickMode(TickMode tickMode) {
+        if (tickMode == null) {
+            throw new IllegalArgumentException("tickMode must not be null");
+        }
+        if (mTickMode != tickMode) {
+            mTickMode = tickMode;
+            if (mTicking) {
+                scheduleNextTick();
             }
+            snapToCurrentTime();
+        }
+    }
 
-            @Override
-            public void onAnimationCancel(Animator animation) {
-                mAnimationPlayed = true;
+    public int getSweepFrameRate() {
+        return mSweepFrameRate;
+    }
+
+    /**
+     * Caps the redraw rate of {@link TickMode#SWEEP}. Has no effect in the other modes.
+     */
+    public void setSweepFrameRate(int framesPerSecond) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("framesPerSecond must be positive");
+        }
+        if (mSweepFrameRate != framesPerSecond) {
+            mSweepFrameRate = framesPerSecond;
+            if (mTicking) {
+                scheduleNextTick();
             }
+        }
+    }
 
-            @Override
-            public void onAnimationRepeat(Animator animation) {
+    private TickMode getEffectiveTickMode() {
+        if (mChronograph != null) {
+            ClockStyle style = mRenderer.getStyle();
+            if (!mChronograph.isRunning()) {
+                return TickMode.MINUTE;
             }
-        });
-        set.setStartDelay(DEFAULT_ANIM_START_DELAY_MILLI);
-        set.start();
+            if (mAmbient || !style.isShowSweepHand() && !style.isShowSubDials()) {
+                return TickMode.QUARTZ;
+            }
+            return TickMode.SWEEP;
+        }
+        return ClockViewHelper.getEffectiveTickMode(mTickMode, mRenderer.getStyle());
+    }
+
+    /**
+     * @param now the time shown in milliseconds, which steps are aligned to
+     */
+    private long getTickDelay(TickMode tickMode, long now) {
+        if (tickMode == TickMode.SWEEP && !mRenderer.getStyle().isShowSweepHand()) {
+            // A chronograph showing only its sub-dials: the tenths hand is the fastest one.
+            return TENTHS_STEP_MILLIS - now % TENTHS_STEP_MILLIS;
+        }
+        return ClockViewHelper.getTickDelay(tickMode, now, mSweepFrameRate);
     }
 
     @Override
-    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        int widthMode = MeasureSpec.getMode(widthMeasureSpec);
-        int heightMode = MeasureSpec.getMode(heightMeasureSpec);
-        int widthSize = MeasureSpec.getSize(widthMeasureSpec);
-        int heightSize = MeasureSpec.getSize(heightMeasureSpec);
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAttached = true;
+        ClockCache.registerMemoryCallbacks(getContext());
+        ClockTicker ticker = ClockTicker.getInstance();
+        ticker.addSystemListener(getContext(), mSystemListener);
+        mScreenOn = ticker.isScreenOn();
+        updateFrameBudget();
+        refreshTimeZone();
+        updateTicking();
+    }
 
-        int width;
-        int height;
+    @Override
+    protected void onDetachedFromWindow() {
+        mAttached = false;
+        ClockTicker.getInstance().removeSystemListener(mSystemListener);
+        updateTicking();
+        super.onDetachedFromWindow();
+    }
 
-        if (widthMode == MeasureSpec.EXACTLY) {
-            width = widthSize;
-        } else {
-            width = mMinWidth;
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateTicking();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        mWindowVisible = visibility == VISIBLE;
+        updateTicking();
+    }
+
+    private void onSystemTimeChanged() {
+        refreshTimeZone();
+        if (mTicking) {
+            scheduleNextTick();
         }
+        snapToCurrentTime();
+    }
 
-        if (heightMode == MeasureSpec.EXACTLY) {
-            height = heightSize;
+    /**
+     * Follows the system default time zone unless a fixed one was set, and forgets the cached
+     * zone offset since the time or the zone rules may have changed while we were not listening.
+     */
+    private void refreshTimeZone() {
+        if (TextUtils.isEmpty(mTimeZoneId)) {
+            mTimeZone = TimeZone.getDefault();
+            mClockTime.setTimeZone(mTimeZone);
+            mRenderer.setTimeZone(mTimeZone);
         } else {
-            height = mMinHeight;
+            mClockTime.invalidateOffset();
         }
+    }
 
-        int centerX = width / 2;
-        int centerY = height / 2;
-        int rectSize = Math.min(width, height);
-        mPaintRect.set(centerX - rectSize / 2, centerY - rectSize / 2, centerX + rectSize / 2, centerY + rectSize / 2);
+    private void updateFrameBudget() {
+        mFrameBudgetNanos = (long) (1e9 / ClockViewHelper.getRefreshRate(getContext()));
+    }
 
-        setMeasuredDimension(width, height);
+    /**
+     * Starts or stops all periodic work depending on whether the clock can actually be seen.
+     * A running clock ticks from the shared {@link ClockTicker}; a stopped one is not registered
+     * there and does not schedule any frame; when it is started again, a full redraw
+     * snaps the hands straight to the current time. The intro animation plays the first time
+     * the clock is started.
+     */
+    private void updateTicking() {
+        boolean ticking = mAttached && mWindowVisible && mScreenOn && isShown();
+        if (ticking == mTicking) {
+            return;
+        }
+        mTicking = ticking;
+        if (ticking) {
+            ClockCache.onClockShown();
+            snapToCurrentTime();
+            scheduleNextTick();
+            ClockTicker.getInstance().register(this);
+        } else {
+            ClockTicker.getInstance().unregister(this);
+            if (mHandAnimator != null) {
+                mHandAnimator.cancel();
+            }
+        }
+        updateIntro();
     }
 
-    @Override
-    public void setPadding(int left, int top, int right, int bottom) {
+    /**
+     * Plays the pending intro animation once the clock runs, or with
+     * {@link #setIntroOnFirstVisible(boolean)}, waits for a frame in which part of the running
+     * clock is on screen.
+     */
+    private void updateIntro() {
+        boolean waiting = mIntroPending && mTicking && mIntroOnFirstVisible;
+        if (waiting != mIntroWaitingForVisible) {
+            mIntroWaitingForVisible = waiting;
+            if (waiting) {
+                getViewTreeObserver().addOnPreDrawListener(mIntroPreDrawListener);
+            } else {
+                getViewTreeObserver().removeOnPreDrawListener(mIntroPreDrawListener);
+            }
+        }
+        if (mIntroPending && mTicking && !mIntroOnFirstVisible) {
+            mIntroPending = false;
+            startIntroAnimation();
+        }
+    }
 
+    /**
+     * Reads the time source, except while handling a tick of the system clock, where the instant
+     * the {@link ClockTicker} read once for all clocks is used.
+     */
+    private long currentTimeMillis() {
+        if (mHandlingTick && mTimeSource == TimeSource.SYSTEM) {
+            return mTickTimeMillis + mTimeOffset;
+        }
+        return mTimeSource.currentTimeMillis() + mTimeOffset;
     }
 
-    @Override
-    protected void onDraw(final Canvas canvas) {
-        super.onDraw(canvas);
-        canvas.translate(mPaintRect.centerX(), mPaintRect.centerY());
-        drawClockFace(canvas);
-        drawOuterRim(canvas);
-        if (mShowThickMarkers) {
-            drawThickMarkers(canvas);
+    /**
+     * Called by the {@link ClockTicker} once {@link #getNextTickUptime()} has passed.
+     *
+     * @param systemTimeMillis the current time of {@link TimeSource#SYSTEM}
+     */
+    void onTick(long systemTimeMillis) {
+        mHandlingTick = true;
+        mTickTimeMillis = systemTimeMillis;
+        try {
+            invalidateHands();
+            scheduleNextTick();
+        } finally {
+            mHandlingTick = false;
         }
-        if (mShowThinMarkers) {
-            drawThinMarkers(canvas);
+    }
+
+    /**
+     * @return when the next tick is due, in {@link SystemClock#uptimeMillis()}
+     */
+    long getNextTickUptime() {
+        return mNextTickUptime;
+    }
+
+    /**
+     * @return whether the next tick is a sweep step, which may be taken a little early, rather
+     * than a step aligned to a second or minute boundary
+     */
+    boolean isNextTickSweep() {
+        return mNextTickSweep;
+    }
+
+    /**
+     * Steps are aligned to the time shown, which for a chronograph is its elapsed time.
+     */
+    private void scheduleNextTick() {
+        long now = mChronograph != null ? mChronograph.getElapsedNanos() / 1000000 : currentTimeMillis();
+        TickMode tickMode = getEffectiveTickMode();
+        long delay = getTickDelay(tickMode, now);
+        mNextTickUptime = SystemClock.uptimeMillis() + delay;
+        mNextTickSweep = tickMode == TickMode.SWEEP && mRenderer.getStyle().isShowSweepHand();
+        ClockTicker.getInstance().reschedule();
+    }
+
+    private void updateTime() {
+        updateTime(0);
+    }
+
+    /**
+     * Reads the time the hands will show in the given number of milliseconds.
+     */
+    private void updateTime(long aheadMillis) {
+        if (mChronograph != null) {
+            long elapsedMillis = mChronograph.getElapsedNanos() / 1000000;
+            updateElapsedTime(mChronograph.isRunning() ? elapsedMillis + aheadMillis : elapsedMillis);
+        } else {
+            updateWallTime(currentTimeMillis() + aheadMillis);
         }
-        if (mShowNumbers) {
-            drawNumbers(canvas);
+    }
+
+    private void updateElapsedTime(long elapsedMillis) {
+        mElapsedMillis = elapsedMillis;
+        mHour = elapsedMillis / 3600000 % 12;
+        mMinute = elapsedMillis / 60000 % 60;
+        mSecond = elapsedMillis / 1000 % 60;
+        mMilliSecond = (int) (elapsedMillis % 60000);
+    }
+
+    private void updateWallTime(long utcMillis) {
+        mElapsedMillis = 0;
+        mClockTime.set(utcMillis);
+        mHour = mClockTime.hour;
+        mMinute = mClockTime.minute;
+        mSecond = mClockTime.second;
+        mMilliSecond = (int) (1000 * mSecond);
+        if (getEffectiveTickMode() == TickMode.SWEEP) {
+            mMilliSecond += mClockTime.milliSecond;
         }
-        drawInnerRim(canvas);
+    }
 
-        if (mAnimationPlayed || !mAnimation) {
-            mCalendar = Calendar.getInstance(mTimeZone);
-            mHour = mCalendar.get(Calendar.HOUR);
-            mMinute = mCalendar.get(Calendar.MINUTE);
-            mSecond = mCalendar.get(Calendar.SECOND);
-            mMilliSecond = (int) (1000 * mSecond + mCalendar.get(Calendar.MILLISECOND));
+    private void updateHandAngles() {
+        for (int hand = 0; hand < HAND_COUNT; hand++) {
+            mHandAngles[hand] = computeHandAngle(hand);
+        }
+        for (int subDial = 0; subDial < SUB_DIAL_COUNT; subDial++) {
+            mSubDialAngles[subDial] = ClockRenderer.computeSubDialAngle(subDial, mElapsedMillis);
         }
+        mHandsValid = true;
+    }
 
-        drawHourHand(canvas, mHour, mMinute, mSecond);
-        drawMinuteHand(canvas, mMinute, mSecond);
-        if (mShowSweepHand) {
-            drawSweepHand(canvas, mMilliSecond);
+    private void snapToCurrentTime() {
+        updateTime();
+        updateHandAngles();
+        if (isBurnInShiftActive()) {
+            updateBurnInOffset();
         }
-        canvas.drawCircle(0, 0, mCenterCircleRadius, mCenterCirclePaint);
+        updateHandLayers();
+        invalidate();
+        if (mFrameStats != null) {
+            mFrameStats.recordInvalidation(getWidth() * getHeight());
+        }
+    }
 
-        if (mAnimation && !mAnimationPlayed) {
-            postInvalidate();
-        } else {
-            postInvalidate(
-                    mRefreshRectLeft + mPaintRect.centerX() - (int) mThickMarkerWidth,
-                    mRefreshRectTop + mPaintRect.centerY() - (int) mThickMarkerWidth,
-                    mRefreshRectRight + mPaintRect.centerX() + (int) mThickMarkerWidth,
-                    mRefreshRectBottom + mPaintRect.centerY() + (int) mThickMarkerWidth);
-            mRefreshRectLeft = mRefreshRectRight = mRefreshRectTop = mRefreshRectBottom = 0;
+    /**
+     * Invalidates the union of the old and new bounds of every hand that moved since the last
+     * tick. Hands whose tip moved less than {@link #MIN_HAND_MOVEMENT} pixels keep their old
+     * angle until the difference adds up, so a tick that only moves the sweep hand does not
+     * touch the hour and minute hands at all.
+     */
+    private void invalidateHands() {
+        if (isHandAnimationRunning()) {
+            return;
+        }
+        if (!mHandsValid || isBurnInShiftActive() && currentTimeMillis() / 60000 != mBurnInMinute) {
+            // The burn-in shift moves the whole clock, so it is redrawn in full once a minute.
+            snapToCurrentTime();
+            return;
+        }
+        updateTime();
+        mDirtyRect.setEmpty();
+        mHandLayerMoved = false;
+        for (int hand = 0; hand < HAND_COUNT; hand++) {
+            moveHand(hand, computeHandAngle(hand));
         }
+        for (int subDial = 0; subDial < SUB_DIAL_COUNT; subDial++) {
+            moveSubDialHand(subDial, ClockRenderer.computeSubDialAngle(subDial, mElapsedMillis));
+        }
+        invalidateDirtyRect();
     }
 
-    private void drawClockFace(Canvas canvas) {
-        canvas.drawCircle(0, 0, mPaintRect.width() / 2, mColckFacePaint);
+    /**
+     * Sub-dial hands only move in steps, so a changed angle simply invalidates the whole
+     * sub-dial.
+     */
+    private void moveSubDialHand(int subDial, float angle) {
+        if (mSubDialAngles[subDial] == angle) {
+            return;
+        }
+        mSubDialAngles[subDial] = angle;
+        if (mRenderer.getStyle().isShowSubDials()) {
+            int x = Math.round(mRenderer.getSubDialCenterX(subDial));
+            int radius = (int) Math.ceil(mRenderer.getSubDialRadius()) + 1;
+            mDirtyRect.union(x - radius, -radius, x + radius, radius);
+        }
     }
 
-    private void drawThickMarkers(Canvas canvas) {
-        int radius = mPaintRect.width() / 2;
-        for (int degree = 0; degree < 360; degree += 30) {
-            double radian = degree * Math.PI / 180;
-            canvas.drawLine(
-                    radius * (float)Math.cos(radian),
-                    radius * (float)Math.sin(radian),
-                    (radius - DEFAULT_THICK_MARKER_LENGTH) * (float)Math.cos(radian),
-                    (radius - DEFAULT_THICK_MARKER_LENGTH) * (float)Math.sin(radian),
-                    mThickMarkerPaint);
+    private void moveHand(int hand, float angle) {
+        if (!mRenderer.isHandShown(hand)) {
+            mHandAngles[hand] = angle;
+        } else if (mHandLayerViews != null) {
+            if (hasHandMoved(hand, angle)) {
+                mHandAngles[hand] = angle;
+                mHandLayerViews[hand].setRotation(getHandLayerRotation(hand));
+                mHandLayerMoved = true;
+            }
+        } else if (hasHandMoved(hand, angle)) {
+            unionHandBounds(hand, mHandAngles[hand]);
+            mHandAngles[hand] = angle;
+            unionHandBounds(hand, angle);
         }
     }
 
-    private void drawThinMarkers(Canvas canvas) {
-        int radius = mPaintRect.width() / 2;
-        for (int degree = 0; degree < 360; degree += 6) {
-            if (degree % 30 == 0) {
-                continue;
+    private void invalidateDirtyRect() {
+        if (!mDirtyRect.isEmpty()) {
+            mDirtyRect.offset(mPaintRect.centerX() + mBurnInOffsetX, mPaintRect.centerY() + mBurnInOffsetY);
+            invalidate(mDirtyRect);
+            if (mFrameStats != null) {
+                mFrameStats.recordInvalidation(mDirtyRect.width() * mDirtyRect.height());
             }
-            double radian = degree * Math.PI / 180;
-            canvas.drawLine(
-                    radius * (float)Math.cos(radian),
-                    radius * (float)Math.sin(radian),
-                    (radius - DEFAULT_THIN_MARKER_LENGTH) * (float)Math.cos(radian),
-                    (radius - DEFAULT_THIN_MARKER_LENGTH) * (float)Math.sin(radian),
-                    mThinMarkerPaint);
-        }
-    }
-
-    private void drawOuterRim(Canvas canvas) {
-        int radius = mPaintRect.width() / 2;
-        canvas.drawCircle(0, 0, radius - DEFAULT_THIN_MARKER_LENGTH, mOuterRimPaint);
-    }
-
-    private void drawNumbers(Canvas canvas) {
-        int radius = mPaintRect.width() / 2;
-        int number = 0;
-        Paint.FontMetrics fm = mNumberPaint.getFontMetrics();
-        float numberHeight = -fm.ascent + fm.descent;
-        for (int degree = -60; degree < 300; degree += 30) {
-            double radian = degree * Math.PI / 180;
-            String numberText;
-            if (mNumberType == NumberType.ROMAN) {
-                numberText = convertToRomanNumber(number++);
+        } else if (mFrameStats != null) {
+            if (mHandLayerMoved) {
+                mFrameStats.recordHandLayerFrame();
             } else {
-                numberText = String.valueOf(++number);
+                mFrameStats.recordSkippedFrame();
+            }
+        }
+    }
+
+    /**
+     * Walks the clock through every offset within {@link #getBurnInShift()} pixels, one step per
+     * minute.
+     */
+    private void updateBurnInOffset() {
+        int shift = getBurnInShift();
+        int steps = 2 * shift + 1;
+        long minutes = currentTimeMillis() / 60000;
+        mBurnInMinute = minutes;
+        mBurnInOffsetX = (int) (minutes % steps) - shift;
+        mBurnInOffsetY = (int) (minutes / steps % steps) - shift;
+    }
+
+    /**
+     * @return how far the burn-in protection shifts the clock at most, in pixels
+     */
+    private int getBurnInShift() {
+        if (mBurnInShift < 0) {
+            mBurnInShift = (int) ClockStyle.dipToPx(getResources().getDisplayMetrics(), BURN_IN_SHIFT_DP);
+        }
+        return mBurnInShift;
+    }
+
+    private boolean hasHandMoved(int hand, float angle) {
+        float radius = mRenderer.getHandRadius(hand);
+        float oldAngle = mHandAngles[hand];
+        float dx = radius * ((float) Math.cos(angle) - (float) Math.cos(oldAngle));
+        float dy = radius * ((float) Math.sin(angle) - (float) Math.sin(oldAngle));
+        return dx * dx + dy * dy >= MIN_HAND_MOVEMENT * MIN_HAND_MOVEMENT;
+    }
+
+    /**
+     * Adds the bounds of a hand at the given angle to {@link #mDirtyRect}, including the center
+     * circle drawn on top of it. The bounds of the hand pointing to 12 o'clock are rotated into
+     * place corner by corner, which also covers skin hands reaching past the center.
+     */
+    private void unionHandBounds(int hand, float angle) {
+        mRenderer.getHandBounds(hand, mHandBounds);
+        float cos = (float) Math.cos(angle + Math.PI / 2);
+        float sin = (float) Math.sin(angle + Math.PI / 2);
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (int corner = 0; corner < 4; corner++) {
+            float cornerX = corner < 2 ? mHandBounds.left : mHandBounds.right;
+            float cornerY = corner % 2 == 0 ? mHandBounds.top : mHandBounds.bottom;
+            float x = cornerX * cos - cornerY * sin;
+            float y = cornerX * sin + cornerY * cos;
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        mDirtyRect.union(
+                (int) Math.floor(minX) - 1,
+                (int) Math.floor(minY) - 1,
+                (int) Math.ceil(maxX) + 1,
+                (int) Math.ceil(maxY) + 1);
+        int center = (int) Math.ceil(mRenderer.getStyle().getCenterCircleRadius()) + 1;
+        mDirtyRect.union(-center, -center, center, center);
+    }
+
+    private boolean isHandAnimationRunning() {
+        return mHandAnimator != null && mHandAnimator.isStarted();
+    }
+
+    /**
+     * Sweeps the hands clockwise from 12 o'clock to the current time.
+     */
+    private void startIntroAnimation() {
+        for (int hand = 0; hand < HAND_COUNT; hand++) {
+            mHandAngles[hand] = ClockRenderer.computeHandAngle(hand, 0, 0, 0, 0);
+        }
+        updateHandLayers();
+        invalidate();
+        startHandAnimation(true, mAnimationStartDelay);
+    }
+
+    /**
+     * Moves the hands the short way from where they are to the current time, or snaps them
+     * there if the clock is not running.
+     */
+    private void glideToCurrentTime() {
+        if (!mTicking || !mHandsValid || mAnimationDuration == 0) {
+            if (mHandAnimator != null) {
+                mHandAnimator.cancel();
+            }
+            snapToCurrentTime();
+            return;
+        }
+        startHandAnimation(false, 0);
+    }
+
+    /**
+     * Drives all hands from a single fraction. The target angles are those of the time the
+     * animation will end at, so that the hands land on the running clock.
+     */
+    private void startHandAnimation(boolean clockwise, long startDelay) {
+        if (mHandAnimator == null) {
+            mHandAnimator = ValueAnimator.ofFloat(0, 1);
+            mHandAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    onHandAnimationUpdate(animation.getAnimatedFraction());
+                }
+            });
+            mHandAnimator.addListener(new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationCancel(Animator animation) {
+                    mHandAnimationCanceled = true;
+                }
+
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    if (!mHandAnimationCanceled) {
+                        invalidateHands();
+                    }
+                }
+            });
+        }
+        mHandAnimator.cancel();
+        mHandAnimationCanceled = false;
+
+        updateTime(startDelay + mAnimationDuration);
+        for (int hand = 0; hand < HAND_COUNT; hand++) {
+            float delta = (computeHandAngle(hand) - mHandAngles[hand]) % TWO_PI;
+            if (delta < 0) {
+                delta += TWO_PI;
+            }
+            if (!clockwise && delta > Math.PI) {
+                delta -= TWO_PI;
+            }
+            mAnimationStartAngles[hand] = mHandAngles[hand];
+            mAnimationDeltas[hand] = delta;
+        }
+
+        mHandAnimator.setDuration(mAnimationDuration);
+        mHandAnimator.setStartDelay(startDelay);
+        mHandAnimator.setInterpolator(getAnimationInterpolator());
+        mHandAnimator.start();
+    }
+
+    private void onHandAnimationUpdate(float fraction) {
+        mDirtyRect.setEmpty();
+        mHandLayerMoved = false;
+        for (int hand = 0; hand < HAND_COUNT; hand++) {
+            moveHand(hand, mAnimationStartAngles[hand] + mAnimationDeltas[hand] * fraction);
+        }
+        invalidateDirtyRect();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = ClockViewHelper.measure(getContext(), widthMeasureSpec);
+        int height = ClockViewHelper.measure(getContext(), heightMeasureSpec);
+
+        int centerX = width / 2;
+        int centerY = height / 2;
+        int rectSize = Math.min(width, height);
+        int left = centerX - rectSize / 2;
+        int top = centerY - rectSize / 2;
+        int right = centerX + rectSize / 2;
+        int bottom = centerY + rectSize / 2;
+        if (mPaintRect.left != left || mPaintRect.top != top || mPaintRect.right != right || mPaintRect.bottom != bottom) {
+            mPaintRect.set(left, top, right, bottom);
+            layoutRenderer();
+            invalidateHandLayers();
+        }
+
+        setMeasuredDimension(width, height);
+        if (mHandLayerViews != null) {
+            int childWidthSpec = MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY);
+            int childHeightSpec = MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY);
+            for (HandLayerView layer : mHandLayerViews) {
+                layer.measure(childWidthSpec, childHeightSpec);
             }
-            canvas.drawText(numberText,
-                    (radius - DEFAULT_THICK_MARKER_LENGTH - numberHeight / 2) * (float)Math.cos(radian),
-                    (radius - DEFAULT_THICK_MARKER_LENGTH - numberHeight / 2) * (float)Math.sin(radian) - (fm.ascent + fm.descent) / 2,
-                    mNumberPaint);
         }
     }
 
-    private void drawInnerRim(Canvas canvas) {
-        int radius = mPaintRect.width() / 2;
-        Paint.FontMetrics fm = mNumberPaint.getFontMetrics();
-        float numberHeight = -fm.ascent + fm.descent;
-        canvas.drawCircle(0, 0, radius - DEFAULT_THICK_MARKER_LENGTH - numberHeight - fm.bottom, mInnerRimPaint);
+    /**
+     * Every hand layer covers the whole view and turns around the clock center.
+     */
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        if (mHandLayerViews == null) {
+            return;
+        }
+        for (HandLayerView layer : mHandLayerViews) {
+            layer.layout(0, 0, right - left, bottom - top);
+            layer.setPivotX(mPaintRect.centerX());
+            layer.setPivotY(mPaintRect.centerY());
+        }
     }
 
-    private void drawHourHand(Canvas canvas, float hour, float minute, float second) {
-        Paint.FontMetrics fm = mNumberPaint.getFontMetrics();
-        float numberHeight = -fm.ascent + fm.descent;
-        int radius = (int) (mPaintRect.width() / 2 - DEFAULT_THICK_MARKER_LENGTH - numberHeight - fm.bottom - dipToPx(5));
-        double radian = (hour - 3) * Math.PI / 6 + minute * Math.PI / 360 + second * Math.PI / 21600;
-        float stopX = radius * (float)Math.cos(radian);
-        float stopY = radius * (float)Math.sin(radian);
-        canvas.drawLine(0, 0, stopX, stopY, mHourHandPaint);
-        setRefreshRectCoordinates((int)stopX, (int)stopY);
+    @Override
+    public boolean shouldDelayChildPressedState() {
+        return false;
     }
 
-    private void drawMinuteHand(Canvas canvas, float minute, float second) {
-        int radius = (int) (mPaintRect.width() / 2 - DEFAULT_THIN_MARKER_LENGTH - dipToPx(5));
-        double radian = (minute - 15) * Math.PI / 30 + second * Math.PI / 1800;
-        float stopX = radius * (float)Math.cos(radian);
-        float stopY = radius * (float)Math.sin(radian);
-        canvas.drawLine(0, 0, stopX, stopY, mMinuteHandPaint);
-        setRefreshRectCoordinates((int)stopX, (int)stopY);
+    /**
+     * Fits the clock into {@link #mPaintRect}, leaving room for the burn-in shift when active.
+     */
+    private void layoutRenderer() {
+        int inset = isBurnInShiftActive() ? getBurnInShift() : 0;
+        mRenderer.setSize(Math.max(mPaintRect.width() - 2 * inset, 0));
     }
 
-    private void drawSweepHand(Canvas canvas, int milliSecond) {
-        int radius = mPaintRect.width() / 2;
-        double radian = (milliSecond - 15000) * Math.PI / 30000;
-        float stopX = radius * (float)Math.cos(radian);
-        float stopY = radius * (float)Math.sin(radian);
-        canvas.drawLine(0, 0, stopX, stopY, mSweepHandPaint);
-        setRefreshRectCoordinates((int)stopX, (int)stopY);
+    @Override
+    public void setPadding(int left, int top, int right, int bottom) {
+
     }
 
-    private static float dipToPx(float dipValue) {
-        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dipValue,
-                Resources.getSystem().getDisplayMetrics());
+    @Override
+    protected void onDraw(final Canvas canvas) {
+        super.onDraw(canvas);
+        // The burn-in inset can leave nothing to draw in a tiny clock.
+        if (mPaintRect.isEmpty() || mRenderer.getSize() == 0) {
+            return;
+        }
+        long drawStart = mFrameStats != null ? System.nanoTime() : 0;
+        int inset = (mPaintRect.width() - mRenderer.getSize()) / 2;
+        mRenderer.drawFace(canvas, mPaintRect.left + inset + mBurnInOffsetX, mPaintRect.top + inset + mBurnInOffsetY);
+        // The hand layers are drawn after this, so the translation must not leak into them.
+        canvas.save();
+        canvas.translate(mPaintRect.centerX() + mBurnInOffsetX, mPaintRect.centerY() + mBurnInOffsetY);
+
+        if (!mHandsValid) {
+            updateTime();
+            updateHandAngles();
+            updateHandLayers();
+        }
+
+        if (mRenderer.getStyle().isShowSubDials()) {
+            for (int subDial = 0; subDial < SUB_DIAL_COUNT; subDial++) {
+                mRenderer.drawSubDialHand(canvas, subDial, mSubDialAngles[subDial]);
+            }
+        }
+        if (mHandLayerViews == null) {
+            for (int hand = 0; hand < HAND_COUNT; hand++) {
+                if (mRenderer.isHandShown(hand)) {
+                    mRenderer.drawHand(canvas, hand, mHandAngles[hand]);
+                }
+            }
+            mRenderer.drawCenter(canvas);
+        }
+        canvas.restore();
+
+        if (mFrameStats != null) {
+            mFrameStats.recordFrame(System.nanoTime() - drawStart, mFrameBudgetNanos);
+        }
     }
 
-    private void setRefreshRectCoordinates(int x, int y) {
-        mRefreshRectLeft = Math.min(mRefreshRectLeft, x);
-        mRefreshRectTop = Math.min(mRefreshRectTop, y);
-        mRefreshRectRight = Math.max(mRefreshRectRight, x);
-        mRefreshRectBottom = Math.max(mRefreshRectBottom, y);
+    /**
+     * Draws the center circle on top of the hand layers.
+     */
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+        if (mHandLayerViews == null || mPaintRect.isEmpty() || mRenderer.getSize() == 0) {
+            return;
+        }
+        canvas.save();
+        canvas.translate(mPaintRect.centerX() + mBurnInOffsetX, mPaintRect.centerY() + mBurnInOffsetY);
+        mRenderer.drawCenter(canvas);
+        canvas.restore();
+    }
+
+    /**
+     * Turns and shifts the hand layers to the current hand angles and burn-in offset. Only
+     * updates render properties, so the layers keep their recorded drawing.
+     */
+    private void updateHandLayers() {
+        if (mHandLayerViews == null) {
+            return;
+        }
+        for (int hand = 0; hand < HAND_COUNT; hand++) {
+            HandLayerView layer = mHandLayerViews[hand];
+            layer.setVisibility(mRenderer.isHandShown(hand) ? VISIBLE : INVISIBLE);
+            layer.setRotation(getHandLayerRotation(hand));
+            layer.setTranslationX(mBurnInOffsetX);
+            layer.setTranslationY(mBurnInOffsetY);
+        }
+    }
+
+    /**
+     * Makes the hand layers record their drawing again after the hands changed size or look.
+     */
+    private void invalidateHandLayers() {
+        if (mHandLayerViews != null) {
+            for (HandLayerView layer : mHandLayerViews) {
+                layer.invalidate();
+            }
+        }
     }
 
-    private String convertToRomanNumber(int number) {
-        return ROMAN_NUMBER_LIST[number];
+    /**
+     * @return the rotation of a hand layer in degrees, which draws its hand pointing to 12 o'clock
+     */
+    private float getHandLayerRotation(int hand) {
+        return (float) Math.toDegrees(mHandAngles[hand]) + 90;
     }
 
-    private static final String[] ROMAN_NUMBER_LIST = {
-            "Ⅰ", "Ⅱ", "Ⅲ", "Ⅳ", "Ⅴ", "Ⅵ",
-            "Ⅶ", "Ⅷ", "Ⅸ", "Ⅹ", "Ⅺ", "Ⅻ"};
+    private float computeHandAngle(int hand) {
+        return ClockRenderer.computeHandAngle(hand, mHour, mMinute, mSecond, mMilliSecond);
+    }
+
+    /**
+     * One hand pointing to 12 o'clock, drawn around the pivot, i.e. the clock center.
+     */
+    private final class HandLayerView extends View {
+
+        private final int mHand;
+
+        HandLayerView(Context context, int hand) {
+            super(context);
+            mHand = hand;
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            if (mRenderer.getSize() == 0) {
+                return;
+            }
+            canvas.translate(getPivotX(), getPivotY());
+            mRenderer.drawHand(canvas, mHand, (float) (-Math.PI / 2));
+        }
+    }
 }
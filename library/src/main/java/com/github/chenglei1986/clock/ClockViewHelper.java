@@ -0,0 +1,82 @@
+package com.github.chenglei1986.clock;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.text.TextUtils;
+import android.view.View;
+import android.view.WindowManager;
+
+import java.util.TimeZone;
+
+/**
+ * What {@link ClockView}, {@link ClockTextureView} and {@link ClockTicker} have in common.
+ */
+final class ClockViewHelper {
+
+    static final int DEFAULT_SWEEP_FRAME_RATE = 60;
+
+    private static final float DEFAULT_REFRESH_RATE = 60;
+    private static final float MIN_SIZE_DP = 50;
+
+    private ClockViewHelper() {
+    }
+
+    static ClockView.TickMode readTickMode(TypedArray attr) {
+        return ClockView.TickMode.values()[attr.getInt(R.styleable.ClockView_tickMode, 0)];
+    }
+
+    static int readSweepFrameRate(TypedArray attr) {
+        int sweepFrameRate = attr.getInt(R.styleable.ClockView_sweepFrameRate, DEFAULT_SWEEP_FRAME_RATE);
+        return sweepFrameRate > 0 ? sweepFrameRate : DEFAULT_SWEEP_FRAME_RATE;
+    }
+
+    /**
+     * @return the zone with the given ID, or the system default time zone if there is none
+     */
+    static TimeZone resolveTimeZone(String timeZoneId) {
+        return TextUtils.isEmpty(timeZoneId) ? TimeZone.getDefault() : TimeZone.getTimeZone(timeZoneId);
+    }
+
+    /**
+     * @return the edge length for one measure spec: the given size if exact, 50dp otherwise
+     */
+    static int measure(Context context, int measureSpec) {
+        if (View.MeasureSpec.getMode(measureSpec) == View.MeasureSpec.EXACTLY) {
+            return View.MeasureSpec.getSize(measureSpec);
+        }
+        return (int) ClockStyle.dipToPx(context.getResources().getDisplayMetrics(), MIN_SIZE_DP);
+    }
+
+    /**
+     * @return the tick mode to use for a wall clock; without a sweep hand nothing changes more
+     * than once a minute
+     */
+    static ClockView.TickMode getEffectiveTickMode(ClockView.TickMode tickMode, ClockStyle style) {
+        return style.isShowSweepHand() ? tickMode : ClockView.TickMode.MINUTE;
+    }
+
+    /**
+     * @param now the time shown in milliseconds, which steps are aligned to
+     * @return the milliseconds until the next step
+     */
+    static long getTickDelay(ClockView.TickMode tickMode, long now, int sweepFrameRate) {
+        switch (tickMode) {
+            case QUARTZ:
+                return 1000 - now % 1000;
+            case MINUTE:
+                return 60000 - now % 60000;
+            default:
+                return 1000 / sweepFrameRate;
+        }
+    }
+
+    /**
+     * @return the refresh rate of the default display in frames per second, or 60 if the
+     * display does not report one
+     */
+    static float getRefreshRate(Context context) {
+        WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        float refreshRate = windowManager.getDefaultDisplay().getRefreshRate();
+        return refreshRate > 0 ? refreshRate : DEFAULT_REFRESH_RATE;
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.chenglei1986.clock;
+
+/**
+ * Supplies the current instant to a {@link ClockView}. Implementations are called on every
+ * frame, so they should not allocate.
+ */
+public interface TimeSource {
+
+    /**
+     * The system wall clock.
+     */
+    TimeSource SYSTEM = new TimeSource() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    /**
+     * @return milliseconds since the epoch, UTC
+     */
+    long currentTimeMillis();
+}
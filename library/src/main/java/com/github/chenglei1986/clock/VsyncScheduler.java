@@ -0,0 +1,39 @@
+package com.github.chenglei1986.clock;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+/**
+ * Runs a callback on a vsync of the thread it was created on, which must have a looper. Used by
+ * {@link ClockTicker} on the main thread and by the render thread of {@link ClockTextureView}.
+ * Kept in its own class so that {@link Choreographer} is only loaded on API 16+.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+final class VsyncScheduler implements Choreographer.FrameCallback {
+
+    private final Runnable mCallback;
+    private final Choreographer mChoreographer = Choreographer.getInstance();
+
+    VsyncScheduler(Runnable callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * Runs the callback on the first vsync at least the given time from now, replacing any
+     * earlier request.
+     */
+    void schedule(long delayMillis) {
+        mChoreographer.removeFrameCallback(this);
+        mChoreographer.postFrameCallbackDelayed(this, delayMillis);
+    }
+
+    void cancel() {
+        mChoreographer.removeFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mCallback.run();
+    }
+}
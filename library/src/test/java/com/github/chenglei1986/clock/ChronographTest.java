@@ -0,0 +1,164 @@
+package com.github.chenglei1986.clock;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChronographTest {
+
+    private final FakeNanoClock mClock = new FakeNanoClock();
+
+    @Test
+    public void elapsedTimeOnlyRunsWhileStarted() {
+        Chronograph chronograph = new Chronograph(10, mClock);
+        mClock.nanos = 1000;
+        chronograph.start();
+        mClock.nanos = 1500;
+        assertEquals(500, chronograph.getElapsedNanos());
+
+        chronograph.stop();
+        mClock.nanos = 9000;
+        assertEquals(500, chronograph.getElapsedNanos());
+
+        chronograph.start();
+        mClock.nanos = 9200;
+        assertEquals(700, chronograph.getElapsedNanos());
+    }
+
+    @Test
+    public void lapsBeforeTheBufferIsFull() {
+        Chronograph chronograph = startedAtZero(3);
+        lapAt(chronograph, 10);
+        lapAt(chronograph, 25);
+
+        assertEquals(2, chronograph.getLapCount());
+        assertEquals(2, chronograph.getTotalLapCount());
+        assertEquals(10, chronograph.getSplitNanos(0));
+        assertEquals(25, chronograph.getSplitNanos(1));
+        assertEquals(10, chronograph.getLapNanos(0));
+        assertEquals(15, chronograph.getLapNanos(1));
+    }
+
+    @Test
+    public void oldestLapsAreDroppedOnceTheBufferIsFull() {
+        Chronograph chronograph = startedAtZero(3);
+        lapAt(chronograph, 10);
+        lapAt(chronograph, 30);
+        lapAt(chronograph, 60);
+        lapAt(chronograph, 100);
+        lapAt(chronograph, 150);
+
+        assertEquals(3, chronograph.getLapCount());
+        assertEquals(5, chronograph.getTotalLapCount());
+        assertEquals(60, chronograph.getSplitNanos(0));
+        assertEquals(100, chronograph.getSplitNanos(1));
+        assertEquals(150, chronograph.getSplitNanos(2));
+        // The oldest lap kept is measured from the split that was dropped last.
+        assertEquals(30, chronograph.getLapNanos(0));
+        assertEquals(40, chronograph.getLapNanos(1));
+        assertEquals(50, chronograph.getLapNanos(2));
+    }
+
+    @Test
+    public void wrappingAroundSeveralTimes() {
+        Chronograph chronograph = startedAtZero(4);
+        for (int lap = 1; lap <= 11; lap++) {
+            lapAt(chronograph, lap * lap);
+        }
+
+        assertEquals(4, chronograph.getLapCount());
+        assertEquals(11, chronograph.getTotalLapCount());
+        for (int index = 0; index < 4; index++) {
+            int lap = 8 + index;
+            assertEquals(lap * lap, chronograph.getSplitNanos(index));
+            assertEquals(lap * lap - (lap - 1) * (lap - 1), chronograph.getLapNanos(index));
+        }
+    }
+
+    @Test
+    public void resetForgetsDroppedLaps() {
+        Chronograph chronograph = startedAtZero(2);
+        lapAt(chronograph, 10);
+        lapAt(chronograph, 20);
+        lapAt(chronograph, 30);
+
+        mClock.nanos = 100;
+        chronograph.reset();
+        lapAt(chronograph, 105);
+
+        assertEquals(1, chronograph.getLapCount());
+        assertEquals(1, chronograph.getTotalLapCount());
+        assertEquals(5, chronograph.getSplitNanos(0));
+        assertEquals(5, chronograph.getLapNanos(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readingPastTheLapsKept() {
+        Chronograph chronograph = startedAtZero(2);
+        lapAt(chronograph, 10);
+        lapAt(chronograph, 20);
+        lapAt(chronograph, 30);
+        chronograph.getSplitNanos(2);
+    }
+
+    @Test
+    public void clearCallbackKeepsAnotherClocksCallback() {
+        Chronograph chronograph = new Chronograph(1, mClock);
+        CountingCallback first = new CountingCallback();
+        CountingCallback second = new CountingCallback();
+        chronograph.setCallback(first);
+        chronograph.setCallback(second);
+
+        chronograph.clearCallback(first);
+        chronograph.start();
+        assertEquals(0, first.count);
+        assertEquals(1, second.count);
+
+        chronograph.clearCallback(second);
+        chronograph.stop();
+        assertEquals(1, second.count);
+        assertFalse(chronograph.isRunning());
+    }
+
+    @Test
+    public void lapReturnsTheSplit() {
+        Chronograph chronograph = startedAtZero(1);
+        mClock.nanos = 42;
+        assertEquals(42, chronograph.lap());
+        assertTrue(chronograph.isRunning());
+    }
+
+    private Chronograph startedAtZero(int lapCapacity) {
+        Chronograph chronograph = new Chronograph(lapCapacity, mClock);
+        mClock.nanos = 0;
+        chronograph.start();
+        return chronograph;
+    }
+
+    private void lapAt(Chronograph chronograph, long nanos) {
+        mClock.nanos = nanos;
+        chronograph.lap();
+    }
+
+    private static final class FakeNanoClock implements Chronograph.NanoClock {
+
+        long nanos;
+
+        @Override
+        public long nanoTime() {
+            return nanos;
+        }
+    }
+
+    private static final class CountingCallback implements Chronograph.Callback {
+
+        int count;
+
+        @Override
+        public void onChronographStateChanged() {
+            count++;
+        }
+    }
+}
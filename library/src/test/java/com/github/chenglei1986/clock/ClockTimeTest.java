@@ -0,0 +1,115 @@
+package com.github.chenglei1986.clock;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+public class ClockTimeTest {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    @Test
+    public void springForwardInNewYork() {
+        ClockTime time = new ClockTime();
+        time.setTimeZone(TimeZone.getTimeZone("America/New_York"));
+        // 2017-03-12 02:00 EST becomes 03:00 EDT at 07:00 UTC.
+        long transition = utc(2017, Calendar.MARCH, 12, 7, 0, 0);
+
+        time.set(transition - 1);
+        assertTime(time, 1, 59, 59, 999);
+        time.set(transition);
+        assertTime(time, 3, 0, 0, 0);
+    }
+
+    @Test
+    public void fallBackInNewYork() {
+        ClockTime time = new ClockTime();
+        time.setTimeZone(TimeZone.getTimeZone("America/New_York"));
+        // 2017-11-05 02:00 EDT becomes 01:00 EST at 06:00 UTC.
+        long transition = utc(2017, Calendar.NOVEMBER, 5, 6, 0, 0);
+
+        time.set(transition - 1);
+        assertTime(time, 1, 59, 59, 999);
+        time.set(transition);
+        assertTime(time, 1, 0, 0, 0);
+    }
+
+    @Test
+    public void halfHourTransitionOffTheHour() {
+        ClockTime time = new ClockTime();
+        time.setTimeZone(TimeZone.getTimeZone("Australia/Lord_Howe"));
+        // 2017-10-01 02:00 +10:30 becomes 02:30 +11:00 at 15:30 UTC the day before.
+        long transition = utc(2017, Calendar.SEPTEMBER, 30, 15, 30, 0);
+
+        time.set(transition - 1);
+        assertTime(time, 1, 59, 59, 999);
+        time.set(transition);
+        assertTime(time, 2, 30, 0, 0);
+    }
+
+    @Test
+    public void tickingAcrossTransition() {
+        ClockTime time = new ClockTime();
+        time.setTimeZone(TimeZone.getTimeZone("Europe/Berlin"));
+        // 2017-03-26 02:00 CET becomes 03:00 CEST at 01:00 UTC.
+        long transition = utc(2017, Calendar.MARCH, 26, 1, 0, 0);
+
+        for (long utcMillis = transition - 5000; utcMillis < transition + 5000; utcMillis += 250) {
+            time.set(utcMillis);
+            int expectedHour = utcMillis < transition ? 1 : 3;
+            assertEquals(expectedHour, time.hour);
+        }
+    }
+
+    @Test
+    public void goingBackInTime() {
+        ClockTime time = new ClockTime();
+        time.setTimeZone(TimeZone.getTimeZone("America/New_York"));
+        long transition = utc(2017, Calendar.MARCH, 12, 7, 0, 0);
+
+        time.set(transition + 60000);
+        assertTime(time, 3, 1, 0, 0);
+        time.set(transition - 60000);
+        assertTime(time, 1, 59, 0, 0);
+    }
+
+    @Test
+    public void beforeTheEpoch() {
+        ClockTime time = new ClockTime();
+        time.setTimeZone(UTC);
+
+        time.set(-1);
+        assertTime(time, 11, 59, 59, 999);
+    }
+
+    @Test
+    public void changingTimeZone() {
+        ClockTime time = new ClockTime();
+        long utcMillis = utc(2017, Calendar.JULY, 1, 12, 0, 0);
+        time.setTimeZone(UTC);
+        time.set(utcMillis);
+        assertTime(time, 0, 0, 0, 0);
+
+        time.setTimeZone(TimeZone.getTimeZone("Asia/Kolkata"));
+        time.set(utcMillis);
+        assertTime(time, 5, 30, 0, 0);
+    }
+
+    private static void assertTime(ClockTime time, int hour, int minute, int second, int milliSecond) {
+        assertEquals("hour", hour, time.hour);
+        assertEquals("minute", minute, time.minute);
+        assertEquals("second", second, time.second);
+        assertEquals("milliSecond", milliSecond, time.milliSecond);
+    }
+
+    private static long utc(int year, int month, int day, int hour, int minute, int second) {
+        Calendar calendar = new GregorianCalendar(UTC);
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute, second);
+        return calendar.getTimeInMillis();
+    }
+}